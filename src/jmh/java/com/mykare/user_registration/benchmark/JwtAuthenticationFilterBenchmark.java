@@ -0,0 +1,77 @@
+package com.mykare.user_registration.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mykare.user_registration.cache.InMemorySharedCacheStore;
+import com.mykare.user_registration.config.JwtAuthenticationFilter;
+import com.mykare.user_registration.config.JwtKeyRing;
+import com.mykare.user_registration.config.JwtService;
+import com.mykare.user_registration.config.RequestPathMetrics;
+import com.mykare.user_registration.config.TokenRevocationList;
+import com.mykare.user_registration.config.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One pass of the authentication filter for a request with an already verified
+ * token, i.e. the cost every authenticated API call pays. The mock request and
+ * response are created per invocation because the filter marks the request as
+ * filtered; their cost is part of the score.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final String SECRET = "kD2YdFrvUsmOfvu/r5OWSHudfrD7ucj2gMs1OUZFlAA=";
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> {
+    };
+
+    private JwtAuthenticationFilter filter;
+
+    private String authorization;
+
+    @Setup
+    public void setUp() throws Exception {
+        InMemorySharedCacheStore sharedCacheStore = new InMemorySharedCacheStore();
+        RequestPathMetrics metrics = new RequestPathMetrics(new SimpleMeterRegistry());
+        JwtService jwtService = new JwtService(new JwtKeyRing("HS256", SECRET, 3_600_000, Duration.ofHours(24),
+                sharedCacheStore, new ObjectMapper()), 3_600_000, metrics);
+        filter = new JwtAuthenticationFilter(new VerifiedTokenCache(jwtService, 10_000),
+                new TokenRevocationList(sharedCacheStore, 3_600_000), metrics);
+        authorization = "Bearer " + jwtService.generateToken("bench@mykare.com", "USER");
+        doFilter();
+    }
+
+    @Benchmark
+    public int doFilter() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/users");
+        request.addHeader("Authorization", authorization);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request, response, NO_OP_CHAIN);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        return response.getStatus();
+    }
+}
@@ -0,0 +1,73 @@
+package com.mykare.user_registration.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mykare.user_registration.cache.InMemorySharedCacheStore;
+import com.mykare.user_registration.config.JwtKeyRing;
+import com.mykare.user_registration.config.JwtPrincipal;
+import com.mykare.user_registration.config.JwtService;
+import com.mykare.user_registration.config.RequestPathMetrics;
+import com.mykare.user_registration.config.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokens per second for signing, full verification, and the cached verification
+ * the authentication filter normally takes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JwtServiceBenchmark {
+
+    private static final String SECRET = "kD2YdFrvUsmOfvu/r5OWSHudfrD7ucj2gMs1OUZFlAA=";
+
+    @Param({"HS256", "ES256", "RS256"})
+    public String algorithm;
+
+    private JwtService jwtService;
+
+    private VerifiedTokenCache verifiedTokenCache;
+
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtKeyRing keyRing = new JwtKeyRing(algorithm, SECRET, 3_600_000, Duration.ofHours(24),
+                new InMemorySharedCacheStore(), new ObjectMapper());
+        jwtService = new JwtService(keyRing, 3_600_000, new RequestPathMetrics(new SimpleMeterRegistry()));
+        verifiedTokenCache = new VerifiedTokenCache(jwtService, 10_000);
+        token = jwtService.generateToken("bench@mykare.com", "USER");
+        verifiedTokenCache.verify(token);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken("bench@mykare.com", "USER");
+    }
+
+    @Benchmark
+    public JwtPrincipal parseToken() {
+        return jwtService.parseToken(token);
+    }
+
+    @Benchmark
+    public JwtPrincipal verifyCached() {
+        return verifiedTokenCache.verify(token);
+    }
+}
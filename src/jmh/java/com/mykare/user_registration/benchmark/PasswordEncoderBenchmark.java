@@ -0,0 +1,52 @@
+package com.mykare.user_registration.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Milliseconds per BCrypt hash and per login check at the strengths worth
+ * considering for {@code password.bcrypt.strength}; each step doubles the cost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+public class PasswordEncoderBenchmark {
+
+    @Param({"4", "8", "10", "12"})
+    public int strength;
+
+    private BCryptPasswordEncoder encoder;
+
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        encoder = new BCryptPasswordEncoder(strength);
+        hash = encoder.encode("password1");
+    }
+
+    @Benchmark
+    public String encode() {
+        return encoder.encode("password1");
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return encoder.matches("password1", hash);
+    }
+}
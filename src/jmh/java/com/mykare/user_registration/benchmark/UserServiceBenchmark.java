@@ -0,0 +1,80 @@
+package com.mykare.user_registration.benchmark;
+
+import com.mykare.user_registration.UserRegistrationApplication;
+import com.mykare.user_registration.dto.UserResponseDTO;
+import com.mykare.user_registration.model.Gender;
+import com.mykare.user_registration.model.Role;
+import com.mykare.user_registration.model.User;
+import com.mykare.user_registration.repo.UserRepository;
+import com.mykare.user_registration.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link UserService#getAllUsers} through the real repository and the embedded H2
+ * database, with the application context booted once per trial and seeded with
+ * {@link #SEEDED_USERS} users. Pages are read from the middle of the table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class UserServiceBenchmark {
+
+    private static final int SEEDED_USERS = 10_000;
+
+    @Param({"10", "100"})
+    public int pageSize;
+
+    private ConfigurableApplicationContext context;
+
+    private UserService userService;
+
+    private int page;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(UserRegistrationApplication.class)
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "--logging.level.root=WARN",
+                        "--password.bcrypt.strength=4");
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        List<User> users = new ArrayList<>(SEEDED_USERS);
+        for (int i = 0; i < SEEDED_USERS; i++) {
+            users.add(new User(null, "User " + i, "user" + i + "@mykare.com",
+                    i % 2 == 0 ? Gender.MALE : Gender.FEMALE, "{bcrypt}seeded", Role.USER));
+        }
+        userRepository.saveAll(users);
+        userService = context.getBean(UserService.class);
+        page = SEEDED_USERS / pageSize / 2;
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<UserResponseDTO> getAllUsers() {
+        return userService.getAllUsers(page, pageSize);
+    }
+}
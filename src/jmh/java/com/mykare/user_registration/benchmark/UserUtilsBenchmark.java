@@ -0,0 +1,53 @@
+package com.mykare.user_registration.benchmark;
+
+import com.mykare.user_registration.dto.UserRequestDTO;
+import com.mykare.user_registration.dto.UserResponseDTO;
+import com.mykare.user_registration.model.Gender;
+import com.mykare.user_registration.model.Role;
+import com.mykare.user_registration.model.User;
+import com.mykare.user_registration.utils.UserUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity/DTO mapping on its own; password hashing is stubbed out here and
+ * measured separately in {@link PasswordEncoderBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class UserUtilsBenchmark {
+
+    @SuppressWarnings("deprecation")
+    private final PasswordEncoder passwordEncoder = NoOpPasswordEncoder.getInstance();
+
+    private final UserUtils userUtils = new UserUtils();
+
+    private final UserRequestDTO request = new UserRequestDTO("Bench User", "Bench@Mykare.com", "female", "password1");
+
+    private final User user = new User(42L, "Bench User", "Bench@Mykare.com", Gender.FEMALE, "{bcrypt}hash", Role.USER);
+
+    @Benchmark
+    public User dtoToUser() {
+        return userUtils.dtoToUser(request, passwordEncoder);
+    }
+
+    @Benchmark
+    public UserResponseDTO userToDto() {
+        return userUtils.userToDto(user);
+    }
+}
@@ -0,0 +1,105 @@
+package com.mykare.user_registration.cache;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * In-process {@link SharedCacheStore} for single-node deployments and tests. Several
+ * application contexts in one JVM can share an instance to behave like replicas
+ * talking to one external store. Messages are delivered synchronously.
+ */
+@Slf4j
+public class InMemorySharedCacheStore implements SharedCacheStore {
+
+    private static final int PUTS_PER_SWEEP = 1024;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final AtomicInteger puts = new AtomicInteger();
+
+    private final Map<String, List<Consumer<String>>> listeners = new ConcurrentHashMap<>();
+
+    @Override
+    public Optional<String> get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (entry.isExpired(System.nanoTime())) {
+            entries.remove(key, entry);
+            return Optional.empty();
+        }
+        return Optional.of(entry.value());
+    }
+
+    @Override
+    public void put(String key, String value, Duration ttl) {
+        long now = System.nanoTime();
+        entries.put(key, new Entry(value, now + ttl.toNanos()));
+        if (puts.incrementAndGet() % PUTS_PER_SWEEP == 0) {
+            // keys that are written but never read again would otherwise stay forever
+            entries.values().removeIf(entry -> entry.isExpired(now));
+        }
+    }
+
+    @Override
+    public boolean putIfAbsent(String key, String value, Duration ttl) {
+        long now = System.nanoTime();
+        Entry entry = new Entry(value, now + ttl.toNanos());
+        return entries.merge(key, entry, (existing, ignored) -> existing.isExpired(now) ? entry : existing) == entry;
+    }
+
+    @Override
+    public void delete(String key) {
+        entries.remove(key);
+    }
+
+    @Override
+    public Map<String, String> getByPrefix(String prefix) {
+        long now = System.nanoTime();
+        Map<String, String> matches = new HashMap<>();
+        entries.forEach((key, entry) -> {
+            if (key.startsWith(prefix) && !entry.isExpired(now)) {
+                matches.put(key, entry.value());
+            }
+        });
+        return matches;
+    }
+
+    @Override
+    public void deleteByPrefix(String prefix) {
+        entries.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    @Override
+    public void publish(String channel, String message) {
+        for (Consumer<String> listener : listeners.getOrDefault(channel, List.of())) {
+            try {
+                listener.accept(message);
+            } catch (RuntimeException e) {
+                log.error("Cache invalidation listener failed on channel {}", channel, e);
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(String channel, Consumer<String> listener) {
+        listeners.computeIfAbsent(channel, c -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    private record Entry(String value, long expiresAtNanos) {
+
+        boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
+}
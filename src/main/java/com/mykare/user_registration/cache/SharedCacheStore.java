@@ -0,0 +1,41 @@
+package com.mykare.user_registration.cache;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Shared tier behind every node's near-cache, plus the message bus used to tell
+ * other nodes to drop their local copies. The operations map one-to-one onto a
+ * Redis-like store (GET, SET EX, SET NX EX, DEL, SCAN+DEL, SCAN+MGET, PUBLISH,
+ * SUBSCRIBE), so an
+ * adapter for such a store only has to implement this interface and register
+ * itself as a bean; {@link InMemorySharedCacheStore} is the default stand-in.
+ */
+public interface SharedCacheStore {
+
+    Optional<String> get(String key);
+
+    void put(String key, String value, Duration ttl);
+
+    /**
+     * Stores the value only if the key holds no live entry.
+     *
+     * @return whether the value was stored
+     */
+    boolean putIfAbsent(String key, String value, Duration ttl);
+
+    void delete(String key);
+
+    /**
+     * Every live entry whose key starts with the prefix, keyed by full key.
+     */
+    Map<String, String> getByPrefix(String prefix);
+
+    void deleteByPrefix(String prefix);
+
+    void publish(String channel, String message);
+
+    void subscribe(String channel, Consumer<String> listener);
+}
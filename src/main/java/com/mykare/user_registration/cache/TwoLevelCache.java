@@ -0,0 +1,169 @@
+package com.mykare.user_registration.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Read-through cache with a bounded local near-cache in front of a
+ * {@link SharedCacheStore}. Values travel through the shared tier as JSON.
+ * Invalidations are broadcast on {@link #INVALIDATION_CHANNEL} so every node
+ * drops its local copy; local entries also expire after the TTL, which bounds
+ * staleness if a message is lost.
+ * <p>
+ * A load may read the source before a change commits and finish after the
+ * change was invalidated. Neither tier keeps such a value: an invalidation
+ * replaces the shared entry with a tombstone for {@link #TOMBSTONE_TTL}, and
+ * loaders only add to the shared tier if the key is absent there; locally, the
+ * near-cache computes a key atomically, so an invalidation waits for a running
+ * load of that key and then removes its result. {@link #invalidateAll} leaves
+ * no tombstones and is meant for maintenance, not for racing writes.
+ */
+@Slf4j
+public class TwoLevelCache<V> {
+
+    public static final String INVALIDATION_CHANNEL = "cache-invalidation";
+
+    /**
+     * Outlasts any load, which the connection and query timeouts bound well below it.
+     */
+    static final Duration TOMBSTONE_TTL = Duration.ofMinutes(1);
+
+    /**
+     * Shared-tier value of an invalidated key; never valid JSON for a cached value.
+     */
+    static final String TOMBSTONE = "";
+
+    private static final String ALL_KEYS = "*";
+
+    private final String name;
+    private final Class<V> type;
+    private final SharedCacheStore store;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Cache<String, V> local;
+
+    private final AtomicLong sharedHits = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+
+    public TwoLevelCache(String name, Class<V> type, SharedCacheStore store, ObjectMapper objectMapper,
+                         long maximumSize, Duration ttl) {
+        this.name = name;
+        this.type = type;
+        this.store = store;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.local = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        store.subscribe(INVALIDATION_CHANNEL, this::onInvalidation);
+    }
+
+    /**
+     * Returns the value from the near-cache, else the shared tier, else the loader.
+     * A null from the loader is returned as-is and not cached.
+     */
+    public V get(String key, Function<String, V> loader) {
+        return local.get(key, k -> readShared(k).orElseGet(() -> load(k, loader)));
+    }
+
+    public void invalidate(String key) {
+        local.invalidate(key);
+        store.put(sharedKey(key), TOMBSTONE, TOMBSTONE_TTL);
+        store.publish(INVALIDATION_CHANNEL, name + '\n' + key);
+    }
+
+    public void invalidateAll() {
+        local.invalidateAll();
+        store.deleteByPrefix(name + ':');
+        store.publish(INVALIDATION_CHANNEL, name + '\n' + ALL_KEYS);
+    }
+
+    /**
+     * Publishes the near-cache statistics plus shared-tier hits and loader calls,
+     * tagged with the cache name.
+     */
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, local, name);
+        FunctionCounter.builder("cache.shared.hits", sharedHits, AtomicLong::get)
+                .description("Near-cache misses served by the shared tier")
+                .tag("cache", name)
+                .register(registry);
+        FunctionCounter.builder("cache.loads", loads, AtomicLong::get)
+                .description("Misses in both tiers that went to the loader")
+                .tag("cache", name)
+                .register(registry);
+    }
+
+    public CacheStats localStats() {
+        return local.stats();
+    }
+
+    public long sharedHits() {
+        return sharedHits.get();
+    }
+
+    public long loads() {
+        return loads.get();
+    }
+
+    private Optional<V> readShared(String key) {
+        Optional<String> json = store.get(sharedKey(key));
+        if (json.isEmpty() || TOMBSTONE.equals(json.get())) {
+            return Optional.empty();
+        }
+        try {
+            V value = objectMapper.readValue(json.get(), type);
+            sharedHits.incrementAndGet();
+            return Optional.of(value);
+        } catch (JsonProcessingException e) {
+            log.warn("Dropping unreadable entry {} from shared cache {}", key, name);
+            store.delete(sharedKey(key));
+            return Optional.empty();
+        }
+    }
+
+    private V load(String key, Function<String, V> loader) {
+        loads.incrementAndGet();
+        V value = loader.apply(key);
+        if (value != null) {
+            try {
+                // a tombstone or a fresher value from another node wins
+                store.putIfAbsent(sharedKey(key), objectMapper.writeValueAsString(value), ttl);
+            } catch (JsonProcessingException e) {
+                log.warn("Could not write entry {} to shared cache {}", key, name);
+            }
+        }
+        return value;
+    }
+
+    private void onInvalidation(String message) {
+        int separator = message.indexOf('\n');
+        if (separator < 0 || !name.equals(message.substring(0, separator))) {
+            return;
+        }
+        String key = message.substring(separator + 1);
+        if (ALL_KEYS.equals(key)) {
+            local.invalidateAll();
+        } else {
+            local.invalidate(key);
+        }
+    }
+
+    private String sharedKey(String key) {
+        return name + ':' + key;
+    }
+}
@@ -0,0 +1,136 @@
+package com.mykare.user_registration.config;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit that follows observed latency, in the style of TCP Vegas with
+ * AIMD steps. The lowest recent latency stands for "no queueing", and each sample
+ * estimates how many requests are queued as {@code limit * (1 - baseline / rtt)}.
+ * The thresholds scale with {@code log10(limit)}, as in Vegas implementations, so a
+ * large limit does not read a few percent of latency jitter as a queue: below
+ * {@code alpha * log10(limit)} queued requests, and while the limit is actually in
+ * use, the limit grows by about one per {@code limit} samples. Above
+ * {@code beta * log10(limit)}, or when a request failed, the sample signals
+ * congestion and the caller {@link #backOff backs off} this limit. A backoff
+ * cuts by {@link #BACKOFF} at most once per round of requests, because requests
+ * that started before a cut all saw the same queue. The baseline is re-learned every {@link #BASELINE_RESET_SAMPLES}
+ * samples so a permanent shift (a higher BCrypt cost, a slower DB) is not read
+ * as congestion forever. Sample state is guarded by a {@link ReentrantLock}
+ * rather than a monitor, because every request feeds a sample and a monitor would
+ * pin a virtual thread to its carrier.
+ */
+class AdaptiveConcurrencyLimit {
+
+    static final double BACKOFF = 0.9;
+
+    static final int BASELINE_RESET_SAMPLES = 1000;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final int alpha;
+
+    private final int beta;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile double limit;
+
+    private long baselineNanos = Long.MAX_VALUE;
+
+    private long lastDecreaseNanos;
+
+    private int samplesSinceReset;
+
+    AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, int alpha, int beta) {
+        this.minLimit = Math.max(minLimit, 1);
+        this.maxLimit = Math.max(maxLimit, this.minLimit);
+        this.alpha = alpha;
+        this.beta = Math.max(beta, alpha);
+        this.limit = Math.min(Math.max(initialLimit, this.minLimit), this.maxLimit);
+        this.lastDecreaseNanos = System.nanoTime();
+    }
+
+    boolean tryAcquire() {
+        int current;
+        do {
+            current = inflight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+        } while (!inflight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Releases a permit taken at {@code startNanos} and feeds its latency into the
+     * limit. {@code dropped} marks a request that failed because of load.
+     *
+     * @return whether the sample signals congestion
+     */
+    boolean release(long startNanos, boolean dropped) {
+        int inflightAtRelease = inflight.getAndDecrement();
+        return onSample(startNanos, System.nanoTime(), inflightAtRelease, dropped);
+    }
+
+    /**
+     * Releases a permit without feeding its latency into the limit, for work whose
+     * duration says nothing about queueing.
+     */
+    void releaseWithoutSample() {
+        inflight.decrementAndGet();
+    }
+
+    boolean onSample(long startNanos, long endNanos, int inflightAtRelease, boolean dropped) {
+        long rtt = endNanos - startNanos;
+        lock.lock();
+        try {
+            if (++samplesSinceReset >= BASELINE_RESET_SAMPLES) {
+                samplesSinceReset = 0;
+                baselineNanos = rtt;
+            } else {
+                baselineNanos = Math.min(baselineNanos, rtt);
+            }
+
+            double queued = limit * (1 - (double) baselineNanos / Math.max(rtt, 1));
+            double scale = Math.max(1, Math.log10(limit));
+            if (dropped || queued > beta * scale) {
+                return true;
+            }
+            if (queued < alpha * scale && inflightAtRelease * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Cuts the limit for congestion seen by a request that started at
+     * {@code startNanos}, unless the limit was already cut after that.
+     */
+    void backOff(long startNanos, long nowNanos) {
+        lock.lock();
+        try {
+            if (startNanos > lastDecreaseNanos) {
+                limit = Math.max(minLimit, limit * BACKOFF);
+                lastDecreaseNanos = nowNanos;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getLimit() {
+        return (int) limit;
+    }
+
+    int getInflight() {
+        return inflight.get();
+    }
+}
@@ -16,6 +16,7 @@ public class AdminUserSetup implements CommandLineRunner {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ReadYourWrites readYourWrites;
 
     @Value("${admin.name}")
     private String adminName;
@@ -27,15 +28,16 @@ public class AdminUserSetup implements CommandLineRunner {
     private String adminPassword;
 
 
-    public AdminUserSetup(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public AdminUserSetup(UserRepository userRepository, PasswordEncoder passwordEncoder, ReadYourWrites readYourWrites) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.readYourWrites = readYourWrites;
     }
 
     @Override
     public void run(String... args) {
 
-        if (userRepository.findByEmail(adminEmail).isEmpty()) {
+        if (readYourWrites.onPrimary(() -> userRepository.findByEmail(adminEmail)).isEmpty()) {
             User admin = new User();
             admin.setName(adminName);
             admin.setEmail(adminEmail);
@@ -0,0 +1,48 @@
+package com.mykare.user_registration.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Picks the highest BCrypt cost whose single hash still fits a latency budget on
+ * the current machine. Each cost step doubles the work, so the search walks up
+ * from the configured floor and stops at the first cost that overshoots.
+ */
+@Slf4j
+public class BCryptStrengthCalibrator {
+
+    static final int MAX_STRENGTH = 16;
+
+    private static final String SAMPLE_PASSWORD = "calibration-sample-password";
+
+    private final int minStrength;
+
+    private final long targetMillis;
+
+    public BCryptStrengthCalibrator(int minStrength, long targetMillis) {
+        this.minStrength = minStrength;
+        this.targetMillis = targetMillis;
+    }
+
+    public int calibrate() {
+        int chosen = minStrength;
+        for (int strength = minStrength; strength <= MAX_STRENGTH; strength++) {
+            long elapsed = timeHash(strength);
+            log.info("BCrypt strength {} took {} ms", strength, elapsed);
+            if (elapsed > targetMillis) {
+                break;
+            }
+            chosen = strength;
+        }
+        log.info("Calibrated BCrypt strength {} for a {} ms budget", chosen, targetMillis);
+        return chosen;
+    }
+
+    private static long timeHash(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        encoder.encode(SAMPLE_PASSWORD); // warm-up
+        long start = System.nanoTime();
+        encoder.encode(SAMPLE_PASSWORD);
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
@@ -0,0 +1,21 @@
+package com.mykare.user_registration.config;
+
+import com.mykare.user_registration.cache.InMemorySharedCacheStore;
+import com.mykare.user_registration.cache.SharedCacheStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class CacheConfig {
+
+    /**
+     * In-process stand-in for the shared cache tier; any other {@link SharedCacheStore}
+     * bean (e.g. a Redis adapter) replaces it.
+     */
+    @Bean
+    @ConditionalOnMissingBean(SharedCacheStore.class)
+    public SharedCacheStore sharedCacheStore() {
+        return new InMemorySharedCacheStore();
+    }
+}
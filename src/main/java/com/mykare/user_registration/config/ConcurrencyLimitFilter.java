@@ -0,0 +1,305 @@
+package com.mykare.user_registration.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sheds load before it queues. Runs ahead of the Spring Security chain, and so
+ * ahead of {@link JwtAuthenticationFilter}. Every route group has its own
+ * {@link AdaptiveConcurrencyLimit}, so a login storm uses up the validate budget
+ * and not the one for reads, and a group backs off only on its own latency
+ * samples, so one group's storm never cuts another group's limit.
+ * <p>
+ * {@link Priority} decides who gives way. Each priority has a floor, a share of
+ * the group's initial limit that backoff never cuts into: critical reads keep all
+ * of theirs and are not shed while under it, sheddable groups can shrink to one.
+ * All groups also share a fixed global cap, of which a group may only take the
+ * share its priority allows, so sheddable work cannot take the capacity reserved
+ * for the groups above it.
+ * <p>
+ * Bulk imports, deletes and exports run for seconds by design, so their latency
+ * says nothing about queueing: they share a fixed limit
+ * ({@code concurrency.limit.bulk.limit}) and feed no latency samples. Rejected
+ * requests get an immediate 503 with Retry-After. Async requests hold their
+ * permit until they complete.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 1)
+@Slf4j
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    public enum Priority {
+        CRITICAL(1.0, 1.0, 1.0), NORMAL(0.8, 0.5, 1.0), SHEDDABLE(0.5, 0.0, 1 / 6d);
+
+        private final double globalShare;
+
+        private final double floorShare;
+
+        private final double queueShare;
+
+        Priority(double globalShare, double floorShare, double queueShare) {
+            this.globalShare = globalShare;
+            this.floorShare = floorShare;
+            this.queueShare = queueShare;
+        }
+
+        /**
+         * Scales a queue threshold down for groups that should give way sooner.
+         */
+        private int queueThreshold(int threshold) {
+            return Math.max(1, (int) Math.round(threshold * queueShare));
+        }
+    }
+
+    public enum RouteGroup {
+        REGISTER(Priority.SHEDDABLE, 20, 200, true),
+        VALIDATE(Priority.SHEDDABLE, 20, 200, true),
+        USERS(Priority.CRITICAL, 100, 500, true),
+        DELETE(Priority.NORMAL, 20, 100, true),
+        BULK(Priority.SHEDDABLE, 4, 4, false),
+        OTHER(Priority.NORMAL, 50, 200, true);
+
+        private final Priority priority;
+        private final int initialLimit;
+        private final int maxLimit;
+        private final boolean sampled;
+
+        RouteGroup(Priority priority, int initialLimit, int maxLimit, boolean sampled) {
+            this.priority = priority;
+            this.initialLimit = initialLimit;
+            this.maxLimit = maxLimit;
+            this.sampled = sampled;
+        }
+
+        /**
+         * The lowest limit backoff may cut the group to, from its priority's floor
+         * share of the initial limit.
+         */
+        private int floor(int initialLimit) {
+            return Math.max(1, (int) (initialLimit * priority.floorShare));
+        }
+
+        /**
+         * Maps a request to its group, or null for endpoints that are never shed
+         * (actuator, so health checks keep answering under load). The path is
+         * decoded with path parameters and duplicate slashes removed, the same way
+         * handler mapping sees it, so {@code /api//v1/validate;x=1} still counts
+         * as a login.
+         */
+        static RouteGroup of(HttpServletRequest request) {
+            String path = UrlPathHelper.defaultInstance.getPathWithinApplication(request);
+            String method = request.getMethod();
+            if (path.startsWith("/actuator/")) {
+                return null;
+            }
+            if (path.equals("/api/v1/register")) {
+                return REGISTER;
+            }
+            if (path.equals("/api/v1/validate")) {
+                return VALIDATE;
+            }
+            if (path.equals("/api/v1/users/bulk") || path.equals("/api/v1/users/bulk/delete")
+                    || HttpMethod.GET.matches(method) && path.equals("/api/v1/users/export")) {
+                return BULK;
+            }
+            if (HttpMethod.DELETE.matches(method) && path.startsWith("/api/v1/users/")) {
+                return DELETE;
+            }
+            if (HttpMethod.GET.matches(method) && path.startsWith("/api/v1/users")) {
+                return USERS;
+            }
+            return OTHER;
+        }
+
+        private String tagValue() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private static final String SHED_RESPONSE =
+            "{\"message\": \"Service busy, retry later\", \"status\": 503, \"details\": \"Service busy\"}";
+
+    private final boolean enabled;
+
+    private final int globalLimit;
+
+    private final String retryAfterSeconds;
+
+    private final AtomicInteger globalInflight = new AtomicInteger();
+
+    private final Map<RouteGroup, AdaptiveConcurrencyLimit> limits = new EnumMap<>(RouteGroup.class);
+
+    private final Map<RouteGroup, Counter> shed = new EnumMap<>(RouteGroup.class);
+
+    public ConcurrencyLimitFilter(@Value("${concurrency.limit.enabled:true}") boolean enabled,
+                                  @Value("${concurrency.limit.global:500}") int globalLimit,
+                                  @Value("${concurrency.limit.queue-alpha:3}") int alpha,
+                                  @Value("${concurrency.limit.queue-beta:6}") int beta,
+                                  @Value("${concurrency.limit.retry-after-seconds:1}") int retryAfterSeconds,
+                                  Environment environment,
+                                  MeterRegistry registry) {
+        this.enabled = enabled;
+        this.globalLimit = globalLimit;
+        this.retryAfterSeconds = String.valueOf(retryAfterSeconds);
+        for (RouteGroup group : RouteGroup.values()) {
+            String prefix = "concurrency.limit." + group.tagValue() + ".";
+            AdaptiveConcurrencyLimit limit;
+            if (group.sampled) {
+                int initialLimit = environment.getProperty(prefix + "initial-limit", Integer.class, group.initialLimit);
+                limit = new AdaptiveConcurrencyLimit(initialLimit,
+                        environment.getProperty(prefix + "min-limit", Integer.class, group.floor(initialLimit)),
+                        environment.getProperty(prefix + "max-limit", Integer.class, group.maxLimit),
+                        group.priority.queueThreshold(alpha), group.priority.queueThreshold(beta));
+            } else {
+                int fixed = environment.getProperty(prefix + "limit", Integer.class, group.maxLimit);
+                limit = new AdaptiveConcurrencyLimit(fixed, fixed, fixed, alpha, beta);
+            }
+            limits.put(group, limit);
+            Gauge.builder("concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                    .description("Current adaptive concurrency limit of the route group")
+                    .tag("group", group.tagValue())
+                    .register(registry);
+            Gauge.builder("concurrency.inflight", limit, AdaptiveConcurrencyLimit::getInflight)
+                    .description("Requests of the route group in flight")
+                    .tag("group", group.tagValue())
+                    .register(registry);
+            shed.put(group, Counter.builder("concurrency.shed")
+                    .description("Requests rejected with 503 by the concurrency limiter")
+                    .tag("group", group.tagValue())
+                    .register(registry));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws IOException, ServletException {
+
+        RouteGroup group = RouteGroup.of(request);
+        if (group == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (!tryAcquireGlobal(group.priority)) {
+            reject(group, response);
+            return;
+        }
+        AdaptiveConcurrencyLimit limit = limits.get(group);
+        if (!limit.tryAcquire()) {
+            globalInflight.decrementAndGet();
+            reject(group, response);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnCompletion(group, start));
+                async = true;
+            }
+        } catch (IOException | ServletException | RuntimeException e) {
+            release(group, start, true);
+            throw e;
+        }
+        if (!async) {
+            release(group, start, response.getStatus() == HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        }
+    }
+
+    private boolean tryAcquireGlobal(Priority priority) {
+        int allowed = (int) (globalLimit * priority.globalShare);
+        int current;
+        do {
+            current = globalInflight.get();
+            if (current >= allowed) {
+                return false;
+            }
+        } while (!globalInflight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    private void release(RouteGroup group, long start, boolean dropped) {
+        globalInflight.decrementAndGet();
+        if (!group.sampled) {
+            limits.get(group).releaseWithoutSample();
+        } else if (limits.get(group).release(start, dropped)) {
+            limits.get(group).backOff(start, System.nanoTime());
+        }
+    }
+
+    private void reject(RouteGroup group, HttpServletResponse response) throws IOException {
+        shed.get(group).increment();
+        log.debug("Shedding {} request, limit {}", group, limits.get(group).getLimit());
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+        response.setContentType("application/json");
+        response.getWriter().write(SHED_RESPONSE);
+    }
+
+    /**
+     * The container calls onComplete after a timeout or error as well, so the
+     * permit is released there exactly once.
+     */
+    private final class ReleaseOnCompletion implements AsyncListener {
+
+        private final RouteGroup group;
+        private final long start;
+        private volatile boolean failed;
+
+        private ReleaseOnCompletion(RouteGroup group, long start) {
+            this.group = group;
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            HttpServletResponse response = (HttpServletResponse) event.getSuppliedResponse();
+            release(group, start, failed || response.getStatus() == HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            failed = true;
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            failed = true;
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
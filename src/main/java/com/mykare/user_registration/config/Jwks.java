@@ -0,0 +1,89 @@
+package com.mykare.user_registration.config;
+
+import java.math.BigInteger;
+import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Converts RSA and P-256 public keys to and from their JSON Web Key form (RFC 7517/7518).
+ */
+final class Jwks {
+
+    private static final int P256_COORDINATE_BYTES = 32;
+
+    private Jwks() {
+    }
+
+    static Map<String, Object> toJwk(String kid, String algorithm, PublicKey key) {
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        jwk.put("kid", kid);
+        jwk.put("use", "sig");
+        jwk.put("alg", algorithm);
+        if (key instanceof RSAPublicKey rsa) {
+            jwk.put("kty", "RSA");
+            jwk.put("n", encode(unsigned(rsa.getModulus(), 0)));
+            jwk.put("e", encode(unsigned(rsa.getPublicExponent(), 0)));
+        } else if (key instanceof ECPublicKey ec) {
+            jwk.put("kty", "EC");
+            jwk.put("crv", "P-256");
+            jwk.put("x", encode(unsigned(ec.getW().getAffineX(), P256_COORDINATE_BYTES)));
+            jwk.put("y", encode(unsigned(ec.getW().getAffineY(), P256_COORDINATE_BYTES)));
+        } else {
+            throw new IllegalArgumentException("Unsupported key type " + key.getAlgorithm());
+        }
+        return jwk;
+    }
+
+    static PublicKey fromJwk(Map<String, Object> jwk) throws GeneralSecurityException {
+        String kty = String.valueOf(jwk.get("kty"));
+        if ("RSA".equals(kty)) {
+            return KeyFactory.getInstance("RSA").generatePublic(new RSAPublicKeySpec(
+                    decode(jwk.get("n")), decode(jwk.get("e"))));
+        }
+        if ("EC".equals(kty) && "P-256".equals(jwk.get("crv"))) {
+            AlgorithmParameters parameters = AlgorithmParameters.getInstance("EC");
+            parameters.init(new ECGenParameterSpec("secp256r1"));
+            ECParameterSpec spec = parameters.getParameterSpec(ECParameterSpec.class);
+            ECPoint point = new ECPoint(decode(jwk.get("x")), decode(jwk.get("y")));
+            return KeyFactory.getInstance("EC").generatePublic(new ECPublicKeySpec(point, spec));
+        }
+        throw new GeneralSecurityException("Unsupported JWK type " + kty);
+    }
+
+    /**
+     * Big-endian magnitude without the sign byte, left-padded to {@code length} when positive.
+     */
+    private static byte[] unsigned(BigInteger value, int length) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length > 1 && bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        if (bytes.length >= length) {
+            return bytes;
+        }
+        byte[] padded = new byte[length];
+        System.arraycopy(bytes, 0, padded, length - bytes.length, bytes.length);
+        return padded;
+    }
+
+    private static String encode(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static BigInteger decode(Object value) {
+        return new BigInteger(1, Base64.getUrlDecoder().decode(String.valueOf(value)));
+    }
+}
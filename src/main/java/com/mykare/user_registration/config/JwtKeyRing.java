@@ -0,0 +1,196 @@
+package com.mykare.user_registration.config;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mykare.user_registration.cache.SharedCacheStore;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Signing and verification keys for {@link JwtService}.
+ * <p>
+ * With {@code HS256} (the default) there is a single shared secret, no {@code kid}
+ * and nothing to publish. With {@code RS256} or {@code ES256} each node signs with
+ * its own key pair, stamps the {@code kid} header and replaces the pair every
+ * rotation interval. Public keys stay valid for verification for one more
+ * interval plus the token lifetime, so rotation never cuts live sessions. They
+ * are shared through the {@link SharedCacheStore} so tokens minted on one node
+ * verify on every other, and are served as a JWKS for services that verify
+ * tokens themselves.
+ */
+@Component
+@Slf4j
+public class JwtKeyRing extends SigningKeyResolverAdapter {
+
+    static final String CHANNEL = "jwt-keys";
+
+    private static final String STORE_PREFIX = "jwks:";
+
+    private static final Set<SignatureAlgorithm> SUPPORTED =
+            Set.of(SignatureAlgorithm.HS256, SignatureAlgorithm.RS256, SignatureAlgorithm.ES256);
+
+    private final SignatureAlgorithm algorithm;
+    private final SharedCacheStore sharedCacheStore;
+    private final ObjectMapper objectMapper;
+    private final Duration retention;
+    private final Cache<String, PublicKey> verificationKeys;
+    private final ReentrantLock rotationLock = new ReentrantLock();
+
+    private volatile SigningKey current;
+
+    public JwtKeyRing(@Value("${jwt.signing.algorithm:HS256}") String algorithm,
+                      @Value("${jwt.secret.key}") String secretKey,
+                      @Value("${jwt.expiration.time}") long expirationMillis,
+                      @Value("${jwt.signing.rotation-interval:24h}") Duration rotationInterval,
+                      SharedCacheStore sharedCacheStore,
+                      ObjectMapper objectMapper) {
+        this.algorithm = SignatureAlgorithm.forName(algorithm);
+        if (!SUPPORTED.contains(this.algorithm)) {
+            throw new IllegalStateException("Unsupported jwt.signing.algorithm " + algorithm);
+        }
+        this.sharedCacheStore = sharedCacheStore;
+        this.objectMapper = objectMapper;
+        this.retention = rotationInterval.plusMillis(expirationMillis);
+        this.verificationKeys = Caffeine.newBuilder()
+                .expireAfterWrite(retention)
+                .build();
+        if (isAsymmetric()) {
+            sharedCacheStore.subscribe(CHANNEL, this::onKeyPublished);
+            rotate();
+        } else {
+            this.current = new SigningKey(null, Keys.hmacShaKeyFor(secretKey.getBytes()));
+        }
+    }
+
+    public SignatureAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public boolean isAsymmetric() {
+        return algorithm != SignatureAlgorithm.HS256;
+    }
+
+    public SigningKey current() {
+        return current;
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.signing.rotation-interval:24h}",
+            initialDelayString = "${jwt.signing.rotation-interval:24h}")
+    public void rotate() {
+        if (!isAsymmetric()) {
+            return;
+        }
+        rotationLock.lock();
+        try {
+            KeyPair keyPair = Keys.keyPairFor(algorithm);
+            String kid = UUID.randomUUID().toString();
+            verificationKeys.put(kid, keyPair.getPublic());
+            publish(kid, keyPair.getPublic());
+            current = new SigningKey(kid, keyPair.getPrivate());
+            log.info("Rotated JWT signing key, new kid {}", kid);
+        } finally {
+            rotationLock.unlock();
+        }
+    }
+
+    /**
+     * Public keys of every node that may still have live tokens, as JWKs, ordered
+     * by kid. They are read from the shared store rather than from this node's
+     * cache, which only holds the kids it has seen, so every replica serves the
+     * same complete set. The current key is added if its publish failed.
+     */
+    public List<Map<String, Object>> publicJwks() {
+        if (!isAsymmetric()) {
+            return List.of();
+        }
+        Map<String, PublicKey> keys = new TreeMap<>();
+        sharedCacheStore.getByPrefix(STORE_PREFIX).values()
+                .forEach(json -> readJwk(json).ifPresent(entry -> keys.put(entry.getKey(), entry.getValue())));
+        SigningKey signingKey = current;
+        keys.computeIfAbsent(signingKey.kid(), verificationKeys::getIfPresent);
+        return keys.entrySet().stream()
+                .map(entry -> Jwks.toJwk(entry.getKey(), algorithm.getValue(), entry.getValue()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+        if (!algorithm.getValue().equals(header.getAlgorithm())) {
+            throw new UnsupportedJwtException("Unexpected signing algorithm " + header.getAlgorithm());
+        }
+        if (!isAsymmetric()) {
+            return current.key();
+        }
+        String kid = header.getKeyId();
+        PublicKey key = kid == null ? null : verificationKeys.get(kid, k -> fetchShared(k).orElse(null));
+        if (key == null) {
+            throw new SignatureException("Unknown signing key");
+        }
+        return key;
+    }
+
+    private void publish(String kid, PublicKey publicKey) {
+        try {
+            String jwk = objectMapper.writeValueAsString(Jwks.toJwk(kid, algorithm.getValue(), publicKey));
+            sharedCacheStore.put(STORE_PREFIX + kid, jwk, retention);
+            sharedCacheStore.publish(CHANNEL, jwk);
+        } catch (Exception e) {
+            log.error("Could not publish JWT verification key {}", kid, e);
+        }
+    }
+
+    /**
+     * Covers keys published before this node subscribed.
+     */
+    private Optional<PublicKey> fetchShared(String kid) {
+        return sharedCacheStore.get(STORE_PREFIX + kid).flatMap(this::readJwk).map(Map.Entry::getValue);
+    }
+
+    private void onKeyPublished(String jwk) {
+        readJwk(jwk).ifPresent(entry -> verificationKeys.put(entry.getKey(), entry.getValue()));
+    }
+
+    private Optional<Map.Entry<String, PublicKey>> readJwk(String json) {
+        try {
+            Map<String, Object> jwk = objectMapper.readValue(json, new TypeReference<>() {
+            });
+            if (!algorithm.getValue().equals(jwk.get("alg"))) {
+                return Optional.empty();
+            }
+            return Optional.of(Map.entry(String.valueOf(jwk.get("kid")), Jwks.fromJwk(jwk)));
+        } catch (Exception e) {
+            log.warn("Ignoring unreadable JWT verification key");
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * The key new tokens are signed with; {@code kid} is null for HS256.
+     */
+    public record SigningKey(String kid, Key key) {
+    }
+}
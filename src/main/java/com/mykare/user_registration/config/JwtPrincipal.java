@@ -0,0 +1,16 @@
+package com.mykare.user_registration.config;
+
+import java.time.Instant;
+
+/**
+ * Immutable result of a single verify-and-decode pass over a JWT. {@code tokenId}
+ * is the {@code jti} claim and is null for tokens issued before it was added.
+ * {@code issuedAt} has millisecond precision, or whole seconds for tokens issued
+ * before the {@code iat_ms} claim was added.
+ */
+public record JwtPrincipal(String subject, String role, String tokenId, Instant issuedAt, Instant expiresAt) {
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !now.isBefore(expiresAt);
+    }
+}
@@ -1,69 +1,135 @@
 package com.mykare.user_registration.config;
 
+import com.mykare.user_registration.exception.InvalidTokenException;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
-import jakarta.annotation.PostConstruct;
+import io.jsonwebtoken.io.Serializer;
+import io.jsonwebtoken.jackson.io.JacksonDeserializer;
+import io.jsonwebtoken.jackson.io.JacksonSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 
-import java.security.Key;
+import java.time.Instant;
 import java.util.Date;
-
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Signs and verifies access tokens. The parser is immutable and thread-safe, so it
+ * is built once. Builders are stateful, so each token gets its own, but they share
+ * one JSON serializer; left unset, JJWT looks one up through the ServiceLoader on
+ * every token. Signing and verification are timed as {@code jwt.sign} and
+ * {@code jwt.verify}, tagged with the algorithm.
+ */
 @Service
 public class JwtService {
 
 
-    @Value("${jwt.secret.key}")
-    private String SECRET_KEY;
+    private static final Serializer<Map<String, ?>> SERIALIZER = new JacksonSerializer<>();
+
+    /**
+     * Issue time in epoch millis; {@code iat} only has second precision, which is
+     * too coarse to tell a token from a revocation in the same second.
+     */
+    static final String ISSUED_AT_MILLIS = "iat_ms";
+
+
+    private final JwtKeyRing keyRing;
 
-    @Value("${jwt.expiration.time}")
-    private String EXPIRATION;
+    private final long expirationMillis;
 
+    private final JwtParser parser;
 
-    private Key key;
+    private final RequestPathMetrics.StageTimer signTimer;
 
+    private final RequestPathMetrics.StageTimer verifyTimer;
 
-    @PostConstruct
-    public void init() {
-        this.key = Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+
+    public JwtService(JwtKeyRing keyRing, @Value("${jwt.expiration.time}") long expirationMillis,
+                      RequestPathMetrics metrics) {
+        this.keyRing = keyRing;
+        this.expirationMillis = expirationMillis;
+        this.parser = Jwts.parserBuilder()
+                .deserializeJsonWith(new JacksonDeserializer<>())
+                .setSigningKeyResolver(keyRing)
+                .build();
+        String algorithm = keyRing.getAlgorithm().getValue();
+        this.signTimer = metrics.stage("jwt.sign", "Time to sign an access token", "algorithm", algorithm);
+        this.verifyTimer = metrics.stage("jwt.verify", "Time to verify and decode an access token", "algorithm", algorithm);
     }
 
 
     public String generateToken(Authentication authentication, String role) {
+        return generateToken(authentication.getName(), role);
+    }
 
-        return Jwts.builder()
-                .setSubject(authentication.getName())
+
+    public String generateToken(String subject, String role) {
+        return signTimer.record(() -> sign(subject, role));
+    }
+
+
+    private String sign(String subject, String role) {
+
+        JwtKeyRing.SigningKey signingKey = keyRing.current();
+        JwtBuilder builder = Jwts.builder().serializeToJsonWith(SERIALIZER);
+        if (signingKey.kid() != null) {
+            builder.setHeaderParam(JwsHeader.KEY_ID, signingKey.kid());
+        }
+        long now = System.currentTimeMillis();
+        return builder
+                .setId(UUID.randomUUID().toString())
+                .setSubject(subject)
                 .claim("roles", role)
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + Long.parseLong(EXPIRATION)))
-                .signWith(key, SignatureAlgorithm.HS256)
+                .setIssuedAt(new Date(now))
+                .claim(ISSUED_AT_MILLIS, now)
+                .setExpiration(new Date(now + expirationMillis))
+                .signWith(signingKey.key(), keyRing.getAlgorithm())
                 .compact();
     }
 
 
+    /**
+     * Verifies the signature and expiry of the token and decodes the claims the
+     * filter needs, all from a single parse.
+     */
+    public JwtPrincipal parseToken(String token) {
+        Claims claims = verifyTimer.record(() -> {
+            try {
+                return extractAllClaims(token);
+            } catch (JwtException | IllegalArgumentException e) {
+                throw new InvalidTokenException("Invalid token");
+            }
+        });
+        Long issuedAtMillis = claims.get(ISSUED_AT_MILLIS, Long.class);
+        Date issuedAt = issuedAtMillis != null ? new Date(issuedAtMillis) : claims.getIssuedAt();
+        Date expiration = claims.getExpiration();
+        return new JwtPrincipal(
+                claims.getSubject(),
+                claims.get("roles", String.class),
+                claims.getId(),
+                issuedAt == null ? null : issuedAt.toInstant(),
+                expiration == null ? null : expiration.toInstant());
+    }
+
+
     public boolean validateToken(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token);
+            parseToken(token);
             return true;
-        } catch (Exception e) {
+        } catch (InvalidTokenException e) {
             return false; // Token is invalid
         }
     }
 
 
     public String extractUsername(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return extractAllClaims(token).getSubject();
     }
 
     public String extractRole(String token) {
@@ -73,14 +139,11 @@ public class JwtService {
 
     public Claims extractAllClaims(String token) {
 
-        return Jwts.parser()
-                .setSigningKey(key)
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
 
     }
 
     public long getExpirationTime() {
-        return Long.parseLong(EXPIRATION);
+        return expirationMillis;
     }
 }
\ No newline at end of file
@@ -0,0 +1,86 @@
+package com.mykare.user_registration.config;
+
+import com.mykare.user_registration.exception.TooManyLoginAttemptsException;
+import com.mykare.user_registration.utils.EmailNormalizer;
+import com.mykare.user_registration.utils.WindowedCountMinSketch;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits failed logins per email and per client IP, so password guessing cannot
+ * keep the CPUs busy with BCrypt. Failures are counted in sliding-window sketches
+ * of fixed size, so memory stays bounded however many emails or addresses an
+ * attacker cycles through, and a check costs a few atomic reads. A successful
+ * login does not reset the count; failures age out with the window, and
+ * Retry-After is the time until they have aged out far enough to allow another
+ * attempt. The client IP is the one Tomcat resolves from X-Forwarded-For for
+ * connections from a trusted proxy (see {@code server.tomcat.remoteip.*}), so
+ * clients behind a load balancer do not share one bucket.
+ */
+@Component
+@Slf4j
+public class LoginThrottle {
+
+    private static final int SKETCH_DEPTH = 4;
+
+    private final WindowedCountMinSketch failuresByEmail;
+
+    private final WindowedCountMinSketch failuresByIp;
+
+    private final int maxFailuresPerEmail;
+
+    private final int maxFailuresPerIp;
+
+    @Autowired
+    public LoginThrottle(@Value("${login.throttle.window:15m}") Duration window,
+                         @Value("${login.throttle.max-failures-per-email:5}") int maxFailuresPerEmail,
+                         @Value("${login.throttle.max-failures-per-ip:50}") int maxFailuresPerIp,
+                         @Value("${login.throttle.sketch-width:16384}") int sketchWidth) {
+        this(window, maxFailuresPerEmail, maxFailuresPerIp, sketchWidth, System::currentTimeMillis);
+    }
+
+    LoginThrottle(Duration window, int maxFailuresPerEmail, int maxFailuresPerIp, int sketchWidth, LongSupplier clock) {
+        this.failuresByEmail = new WindowedCountMinSketch(SKETCH_DEPTH, sketchWidth, window, clock);
+        this.failuresByIp = new WindowedCountMinSketch(SKETCH_DEPTH, sketchWidth, window, clock);
+        this.maxFailuresPerEmail = maxFailuresPerEmail;
+        this.maxFailuresPerIp = maxFailuresPerIp;
+    }
+
+    /**
+     * Throws {@link TooManyLoginAttemptsException} when either the email or the
+     * client IP has used up its failures for the window. A null IP is not checked.
+     */
+    public void checkAllowed(String email, String clientIp) {
+        if (clientIp != null && failuresByIp.estimate(clientIp) >= maxFailuresPerIp) {
+            log.warn("Login throttled for client {}", clientIp);
+            throw new TooManyLoginAttemptsException("Too many failed login attempts",
+                    retryAfterSeconds(failuresByIp, clientIp, maxFailuresPerIp));
+        }
+        String normalizedEmail = EmailNormalizer.normalize(email);
+        if (normalizedEmail != null && failuresByEmail.estimate(normalizedEmail) >= maxFailuresPerEmail) {
+            log.warn("Login throttled for email {}", normalizedEmail);
+            throw new TooManyLoginAttemptsException("Too many failed login attempts",
+                    retryAfterSeconds(failuresByEmail, normalizedEmail, maxFailuresPerEmail));
+        }
+    }
+
+    public void recordFailure(String email, String clientIp) {
+        String normalizedEmail = EmailNormalizer.normalize(email);
+        if (normalizedEmail != null) {
+            failuresByEmail.add(normalizedEmail);
+        }
+        if (clientIp != null) {
+            failuresByIp.add(clientIp);
+        }
+    }
+
+    private static long retryAfterSeconds(WindowedCountMinSketch sketch, String key, int maxFailures) {
+        long millis = sketch.millisUntilBelow(key, maxFailures);
+        return Math.max(1, (millis + 999) / 1000);
+    }
+}
@@ -0,0 +1,141 @@
+package com.mykare.user_registration.config;
+
+import com.mykare.user_registration.exception.ServiceBusyException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Dedicated, bounded pool for BCrypt work (hashing on register, verification on
+ * login) so that password bursts cannot occupy every servlet thread. The pool is
+ * sized to the CPU count by default and rejects immediately once its queue is full.
+ * <p>
+ * In virtual-thread mode every task gets its own virtual thread and the same
+ * bounds are enforced with semaphores instead: {@code admission} caps running plus
+ * waiting tasks, {@code workers} caps concurrent hashing. Waiting on a
+ * {@link Semaphore} parks the virtual thread without pinning its carrier.
+ * <p>
+ * The build targets Java 17, so virtual mode is expected to fall back to platform
+ * threads, with a warning, on a Java 17 runtime. It only takes effect where the
+ * runtime is Java 21 or later, such as the Docker image.
+ */
+@Component
+@Slf4j
+public class PasswordHashingExecutor {
+
+    private final int poolSize;
+
+    private final ThreadPoolExecutor platformExecutor;
+
+    private final Executor virtualExecutor;
+
+    private final Semaphore admission;
+
+    private final Semaphore workers;
+
+    public PasswordHashingExecutor(@Value("${password.hashing.pool-size:0}") int poolSize,
+                                   @Value("${password.hashing.queue-capacity:100}") int queueCapacity,
+                                   @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.poolSize = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        if (virtualThreads && Runtime.version().feature() < 21) {
+            log.warn("Virtual threads requested but running on Java {}, using platform threads",
+                    Runtime.version().feature());
+            virtualThreads = false;
+        }
+        if (virtualThreads) {
+            this.platformExecutor = null;
+            this.virtualExecutor = new VirtualThreadTaskExecutor("password-hashing-");
+            this.admission = new Semaphore(this.poolSize + queueCapacity);
+            this.workers = new Semaphore(this.poolSize);
+        } else {
+            this.platformExecutor = new ThreadPoolExecutor(this.poolSize, this.poolSize, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), new NamedThreadFactory(),
+                    new ThreadPoolExecutor.AbortPolicy());
+            this.virtualExecutor = null;
+            this.admission = null;
+            this.workers = null;
+        }
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        if (platformExecutor == null) {
+            return submitVirtual(task);
+        }
+        try {
+            return CompletableFuture.supplyAsync(task, platformExecutor);
+        } catch (RejectedExecutionException e) {
+            throw busy();
+        }
+    }
+
+    private <T> CompletableFuture<T> submitVirtual(Supplier<T> task) {
+        if (!admission.tryAcquire()) {
+            throw busy();
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                workers.acquireUninterruptibly();
+                try {
+                    return task.get();
+                } finally {
+                    workers.release();
+                }
+            }, virtualExecutor).whenComplete((result, ex) -> admission.release());
+        } catch (RuntimeException e) {
+            admission.release();
+            throw e;
+        }
+    }
+
+    private ServiceBusyException busy() {
+        log.warn("Password hashing queue is full, rejecting request");
+        return new ServiceBusyException("Server is busy, please retry later");
+    }
+
+    public boolean isVirtualThreads() {
+        return platformExecutor == null;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public int getQueueSize() {
+        if (platformExecutor != null) {
+            return platformExecutor.getQueue().size();
+        }
+        return workers.getQueueLength();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (platformExecutor != null) {
+            platformExecutor.shutdown();
+        }
+    }
+
+    private static final class NamedThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
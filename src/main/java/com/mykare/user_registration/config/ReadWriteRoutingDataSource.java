@@ -0,0 +1,36 @@
+package com.mykare.user_registration.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Hands out replica connections to read-only transactions and primary connections
+ * to everything else, including reads pinned by {@link ReadYourWrites}. The key
+ * is looked up when a connection is taken, so this must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}; the
+ * transaction manager would otherwise take the connection before the read-only
+ * flag of the transaction is published.
+ */
+class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Target { PRIMARY, REPLICA }
+
+    private final ReadYourWrites readYourWrites;
+
+    ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReadYourWrites readYourWrites) {
+        this.readYourWrites = readYourWrites;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !readYourWrites.isPinnedToPrimary()
+                ? Target.REPLICA
+                : Target.PRIMARY;
+    }
+}
@@ -0,0 +1,81 @@
+package com.mykare.user_registration.config;
+
+import com.mykare.user_registration.cache.SharedCacheStore;
+import com.mykare.user_registration.utils.EmailNormalizer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Decides when a read must skip the read replica. Read-only transactions go to
+ * the replica by default (see {@link ReplicaDataSourceConfig}), which may lag the
+ * primary. Writes to a user are therefore remembered for the replication-lag
+ * window in the shared cache tier, so every node sends reads of that user to
+ * the primary until the replica has caught up. Lookups that precede a write run
+ * on the primary regardless.
+ * <p>
+ * Without a configured replica everything reads from the one database and this
+ * class only runs the given reads.
+ */
+@Component
+public class ReadYourWrites {
+
+    private static final String KEY_PREFIX = "recent-writes:";
+
+    private final SharedCacheStore sharedCacheStore;
+
+    private final boolean replicaConfigured;
+
+    private final Duration window;
+
+    private final ThreadLocal<Boolean> pinnedToPrimary = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    public ReadYourWrites(SharedCacheStore sharedCacheStore,
+                          @Value("${datasource.replica.url:}") String replicaUrl,
+                          @Value("${datasource.replica.read-your-writes-window:5s}") Duration window) {
+        this.sharedCacheStore = sharedCacheStore;
+        this.replicaConfigured = !replicaUrl.isBlank();
+        this.window = window;
+    }
+
+    /**
+     * Sends reads of the user to the primary for the read-your-writes window.
+     */
+    public void recordWrite(String email) {
+        if (replicaConfigured) {
+            sharedCacheStore.put(KEY_PREFIX + EmailNormalizer.normalize(email), "1", window);
+        }
+    }
+
+    /**
+     * Runs a read of the user on the primary if the user was written within the
+     * window, otherwise wherever its transaction routes it.
+     */
+    public <T> T readUser(String email, Supplier<T> read) {
+        if (replicaConfigured && sharedCacheStore.get(KEY_PREFIX + EmailNormalizer.normalize(email)).isPresent()) {
+            return onPrimary(read);
+        }
+        return read.get();
+    }
+
+    /**
+     * Runs the read on the primary, e.g. a lookup whose result decides a write.
+     */
+    public <T> T onPrimary(Supplier<T> read) {
+        if (!replicaConfigured || pinnedToPrimary.get()) {
+            return read.get();
+        }
+        pinnedToPrimary.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            pinnedToPrimary.remove();
+        }
+    }
+
+    boolean isPinnedToPrimary() {
+        return pinnedToPrimary.get();
+    }
+}
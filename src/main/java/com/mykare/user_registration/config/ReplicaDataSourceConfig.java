@@ -0,0 +1,74 @@
+package com.mykare.user_registration.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Splits reads from writes once {@code datasource.replica.url} is set: the usual
+ * {@code spring.datasource.*} pool becomes the primary, a second pool is opened
+ * on the replica and {@code @Transactional(readOnly = true)} work, including
+ * repository reads called outside a transaction, is routed to it. The
+ * replica pool starts from the primary pool's settings and is tuned with
+ * {@code datasource.replica.hikari.*}.
+ * Flyway and Hibernate's schema validation run on the primary; replicating the
+ * schema and data is up to the database.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.replica.url")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(@Qualifier("primaryDataSource") HikariDataSource primary,
+                                              @Value("${datasource.replica.url}") String url,
+                                              @Value("${datasource.replica.username:${spring.datasource.username:}}") String username,
+                                              @Value("${datasource.replica.password:${spring.datasource.password:}}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        // start from the primary's pool settings; auto-commit has to match because
+        // hibernate may be told that the pool already disables it
+        dataSource.setAutoCommit(primary.isAutoCommit());
+        if (primary.getMaximumPoolSize() > 0) {
+            dataSource.setMaximumPoolSize(primary.getMaximumPoolSize());
+        }
+        if (primary.getMinimumIdle() >= 0) {
+            dataSource.setMinimumIdle(primary.getMinimumIdle());
+        }
+        dataSource.setConnectionTimeout(primary.getConnectionTimeout());
+        dataSource.setMaxLifetime(primary.getMaxLifetime());
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReadYourWrites readYourWrites) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replica, readYourWrites));
+    }
+}
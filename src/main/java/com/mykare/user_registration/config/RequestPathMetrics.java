@@ -0,0 +1,130 @@
+package com.mykare.user_registration.config;
+
+import com.mykare.user_registration.cache.TwoLevelCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Timers for each stage of the request path, so a dashboard can split a slow
+ * login into password hashing, user lookup and token signing. Every tag takes a
+ * fixed set of values and the timers are registered up front, which keeps the
+ * series count bounded and registry lookups off the hot path. Percentile
+ * histograms are switched on per name prefix in application.properties.
+ */
+@Component
+public class RequestPathMetrics {
+
+    public enum UserOperation { REGISTER, VALIDATE, LIST, DELETE }
+
+    public enum FilterOutcome { VALID, INVALID, ABSENT }
+
+    private final MeterRegistry registry;
+
+    private final Map<UserOperation, StageTimer> userOperations = new EnumMap<>(UserOperation.class);
+
+    private final Map<FilterOutcome, Timer> filterOutcomes = new EnumMap<>(FilterOutcome.class);
+
+    private final StageTimer userDetailsLookup;
+
+    public RequestPathMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (UserOperation operation : UserOperation.values()) {
+            userOperations.put(operation, stage("user.service", "Time spent in UserService operations",
+                    "operation", tagValue(operation)));
+        }
+        for (FilterOutcome outcome : FilterOutcome.values()) {
+            filterOutcomes.put(outcome, Timer.builder("jwt.filter")
+                    .description("Time the JWT filter spends authenticating a request, by outcome")
+                    .tag("outcome", tagValue(outcome))
+                    .register(registry));
+        }
+        this.userDetailsLookup = stage("user.details.lookup", "Time to load a user for authentication");
+    }
+
+    public void monitor(TwoLevelCache<?> cache) {
+        cache.bindTo(registry);
+    }
+
+    public <T> T timeUserOperation(UserOperation operation, Supplier<T> body) {
+        return userOperations.get(operation).record(body);
+    }
+
+    public <T> CompletableFuture<T> timeUserOperationAsync(UserOperation operation,
+                                                           Supplier<CompletableFuture<T>> body) {
+        return userOperations.get(operation).recordAsync(body);
+    }
+
+    public <T> T timeUserDetailsLookup(Supplier<T> lookup) {
+        return userDetailsLookup.record(lookup);
+    }
+
+    public void recordFilterOutcome(FilterOutcome outcome, long startNanos) {
+        filterOutcomes.get(outcome).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Registers a timer pair tagged {@code outcome=success|failure}. Callers keep
+     * the returned stage, so the extra tags must come from a small fixed set.
+     */
+    public StageTimer stage(String name, String description, String... tags) {
+        return new StageTimer(
+                Timer.builder(name).description(description).tags(tags).tag("outcome", "success").register(registry),
+                Timer.builder(name).description(description).tags(tags).tag("outcome", "failure").register(registry));
+    }
+
+    private static String tagValue(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Times a stage and records it as a failure when it throws.
+     */
+    public static final class StageTimer {
+
+        private final Timer success;
+
+        private final Timer failure;
+
+        private StageTimer(Timer success, Timer failure) {
+            this.success = success;
+            this.failure = failure;
+        }
+
+        public <T> T record(Supplier<T> stage) {
+            long start = System.nanoTime();
+            try {
+                T result = stage.get();
+                success.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return result;
+            } catch (RuntimeException | Error e) {
+                failure.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                throw e;
+            }
+        }
+
+        /**
+         * Times a stage that finishes on another thread, up to the completion of
+         * the returned future.
+         */
+        public <T> CompletableFuture<T> recordAsync(Supplier<CompletableFuture<T>> stage) {
+            long start = System.nanoTime();
+            CompletableFuture<T> result;
+            try {
+                result = stage.get();
+            } catch (RuntimeException | Error e) {
+                failure.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                throw e;
+            }
+            return result.whenComplete((value, ex) ->
+                    (ex == null ? success : failure).record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        }
+    }
+}
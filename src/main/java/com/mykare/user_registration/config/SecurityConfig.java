@@ -1,6 +1,7 @@
 package com.mykare.user_registration.config;
 
 import com.mykare.user_registration.service.CustomUserDetailsService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -10,18 +11,35 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @Configuration
 @EnableMethodSecurity
 public class SecurityConfig {
 
     private final CustomUserDetailsService userDetailsService;
 
-    public SecurityConfig(CustomUserDetailsService userDetailsService) {
+    private final RequestPathMetrics metrics;
+
+    @Value("${password.bcrypt.strength:10}")
+    private int bcryptStrength;
+
+    @Value("${password.bcrypt.calibrate:false}")
+    private boolean calibrateBcrypt;
+
+    @Value("${password.bcrypt.target-millis:250}")
+    private long bcryptTargetMillis;
+
+    public SecurityConfig(CustomUserDetailsService userDetailsService, RequestPathMetrics metrics) {
         this.userDetailsService = userDetailsService;
+        this.metrics = metrics;
     }
 
     private static final String[] SWAGGER_WHITELIST = {
@@ -36,7 +54,9 @@ public class SecurityConfig {
         http
                 .csrf().disable()
                 .authorizeHttpRequests(authorize -> authorize
-                        .requestMatchers("/api/v1/register", "/api/v1/validate").permitAll()
+                        .requestMatchers("/api/v1/register", "/api/v1/validate", "/api/v1/token/refresh").permitAll()
+                        .requestMatchers("/.well-known/jwks.json").permitAll()
+                        .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()
                         .requestMatchers(SWAGGER_WHITELIST).permitAll()
                         .anyRequest().authenticated()
                 )
@@ -50,6 +70,7 @@ public class SecurityConfig {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setUserDetailsPasswordService(userDetailsService);
         return authProvider;
     }
 
@@ -58,8 +79,25 @@ public class SecurityConfig {
         return config.getAuthenticationManager();
     }
 
+    /**
+     * New hashes are written as {bcrypt} at the configured (or calibrated) cost.
+     * Legacy un-prefixed BCrypt hashes still match and, like hashes with a lower
+     * cost or another algorithm, are re-encoded on the next successful login.
+     * Hashing and matching are timed as {@code password.encoder}.
+     */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        int strength = calibrateBcrypt
+                ? new BCryptStrengthCalibrator(bcryptStrength, bcryptTargetMillis).calibrate()
+                : bcryptStrength;
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put("bcrypt", bcrypt);
+        encoders.put("pbkdf2", Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+
+        DelegatingPasswordEncoder delegatingEncoder = new DelegatingPasswordEncoder("bcrypt", encoders);
+        delegatingEncoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return new TimedPasswordEncoder(delegatingEncoder, metrics);
     }
 }
@@ -0,0 +1,37 @@
+package com.mykare.user_registration.config;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Times hashing and matching, which dominate registration and login, under
+ * {@code password.encoder} tagged with the operation.
+ */
+class TimedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+
+    private final RequestPathMetrics.StageTimer encodeTimer;
+
+    private final RequestPathMetrics.StageTimer matchesTimer;
+
+    TimedPasswordEncoder(PasswordEncoder delegate, RequestPathMetrics metrics) {
+        this.delegate = delegate;
+        this.encodeTimer = metrics.stage("password.encoder", "Time to hash or check a password", "operation", "encode");
+        this.matchesTimer = metrics.stage("password.encoder", "Time to hash or check a password", "operation", "matches");
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return encodeTimer.record(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return matchesTimer.record(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
@@ -0,0 +1,158 @@
+package com.mykare.user_registration.config;
+
+import com.mykare.user_registration.cache.SharedCacheStore;
+import com.mykare.user_registration.utils.BloomFilter;
+import com.mykare.user_registration.utils.EmailNormalizer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory denylist consulted by {@link JwtAuthenticationFilter} on every
+ * authenticated request, so revocation costs no database lookup. Revoked token
+ * ids sit in an exact set behind a Bloom filter: the common case, a token that
+ * was never revoked, is answered from the filter alone. Revoking every token of
+ * a user records a per-user not-before instant instead. Entries are dropped once
+ * the tokens they cover have expired. Revocations are broadcast through the
+ * {@link SharedCacheStore} so every node applies them.
+ */
+@Component
+@Slf4j
+public class TokenRevocationList {
+
+    static final String CHANNEL = "token-revocation";
+
+    private static final String TOKEN_ID = "jti";
+    private static final String SUBJECT = "sub";
+
+    private static final int MIN_CAPACITY = 1024;
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final SharedCacheStore sharedCacheStore;
+    private final Duration maxTokenLifetime;
+
+    private final Map<String, Instant> revokedIds = new ConcurrentHashMap<>();
+    private final Map<String, Instant> notBefore = new ConcurrentHashMap<>();
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private volatile BloomFilter filter;
+    private int capacity;
+
+    public TokenRevocationList(SharedCacheStore sharedCacheStore,
+                               @Value("${jwt.expiration.time}") long expirationMillis) {
+        this.sharedCacheStore = sharedCacheStore;
+        this.maxTokenLifetime = Duration.ofMillis(expirationMillis);
+        rebuildFilter();
+        sharedCacheStore.subscribe(CHANNEL, this::onMessage);
+    }
+
+    public boolean isRevoked(JwtPrincipal principal) {
+        String tokenId = principal.tokenId();
+        if (tokenId != null && filter.mightContain(tokenId) && revokedIds.containsKey(tokenId)) {
+            return true;
+        }
+        if (notBefore.isEmpty()) {
+            return false;
+        }
+        Instant cutoff = notBefore.get(EmailNormalizer.normalize(principal.subject()));
+        return cutoff != null && (principal.issuedAt() == null || principal.issuedAt().isBefore(cutoff));
+    }
+
+    public void revoke(JwtPrincipal principal) {
+        if (principal.tokenId() == null) {
+            throw new IllegalArgumentException("Token has no id");
+        }
+        Instant expiresAt = principal.expiresAt() != null ? principal.expiresAt() : Instant.now().plus(maxTokenLifetime);
+        addRevokedId(principal.tokenId(), expiresAt);
+        sharedCacheStore.publish(CHANNEL, TOKEN_ID + '\n' + principal.tokenId() + '\n' + expiresAt.toEpochMilli());
+    }
+
+    /**
+     * Revokes every token issued to the subject before now, to the millisecond, so
+     * a user who logs in again right away gets a token that is accepted.
+     */
+    public void revokeAllFor(String subject) {
+        String key = EmailNormalizer.normalize(subject);
+        Instant cutoff = Instant.ofEpochMilli(System.currentTimeMillis());
+        addNotBefore(key, cutoff);
+        sharedCacheStore.publish(CHANNEL, SUBJECT + '\n' + key + '\n' + cutoff.toEpochMilli());
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval:60000}")
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        writeLock.lock();
+        try {
+            revokedIds.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+            notBefore.values().removeIf(cutoff -> !cutoff.plus(maxTokenLifetime).isAfter(now));
+            rebuildFilter();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public int revokedTokenCount() {
+        return revokedIds.size();
+    }
+
+    public int revokedSubjectCount() {
+        return notBefore.size();
+    }
+
+    private void addRevokedId(String tokenId, Instant expiresAt) {
+        if (!expiresAt.isAfter(Instant.now())) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            revokedIds.put(tokenId, expiresAt);
+            if (revokedIds.size() > capacity) {
+                rebuildFilter();
+            } else {
+                filter.put(tokenId);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void addNotBefore(String subject, Instant cutoff) {
+        notBefore.merge(subject, cutoff, (current, proposed) -> current.isAfter(proposed) ? current : proposed);
+    }
+
+    /**
+     * Sizes a fresh filter for twice the current set, which also clears the bits of
+     * purged ids. Callers hold {@code writeLock} so no concurrent revocation is
+     * lost; it is a lock rather than a monitor so revocations on virtual threads
+     * do not pin their carrier.
+     */
+    private void rebuildFilter() {
+        int newCapacity = Math.max(MIN_CAPACITY, revokedIds.size() * 2);
+        BloomFilter rebuilt = new BloomFilter(newCapacity, FALSE_POSITIVE_RATE);
+        revokedIds.keySet().forEach(rebuilt::put);
+        capacity = newCapacity;
+        filter = rebuilt;
+    }
+
+    private void onMessage(String message) {
+        String[] parts = message.split("\n", 3);
+        if (parts.length != 3) {
+            log.warn("Ignoring malformed revocation message");
+            return;
+        }
+        Instant instant = Instant.ofEpochMilli(Long.parseLong(parts[2]));
+        if (TOKEN_ID.equals(parts[0])) {
+            addRevokedId(parts[1], instant);
+        } else if (SUBJECT.equals(parts[0])) {
+            addNotBefore(parts[1], instant);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.mykare.user_registration.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Bounded cache of already verified tokens, keyed by a SHA-256 digest of the
+ * raw token so the bearer string itself is never held in memory. Entries expire
+ * at the token's own {@code exp}; only tokens that passed {@link JwtService#parseToken}
+ * are ever stored.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private static final MessageDigest SHA_256 = sha256();
+
+    private final JwtService jwtService;
+
+    private final Cache<String, JwtPrincipal> cache;
+
+    public VerifiedTokenCache(JwtService jwtService,
+                              @Value("${jwt.cache.maximum-size:10000}") long maximumSize) {
+        this.jwtService = jwtService;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new UntilTokenExpiry())
+                .recordStats()
+                .build();
+    }
+
+    public JwtPrincipal verify(String token) {
+        String key = digest(token);
+        JwtPrincipal cached = cache.getIfPresent(key);
+        if (cached != null && !cached.isExpired(Instant.now())) {
+            return cached;
+        }
+        JwtPrincipal principal = jwtService.parseToken(token);
+        cache.put(key, principal);
+        return principal;
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * Clones a prototype digest, which skips the provider lookup of {@link MessageDigest#getInstance}.
+     */
+    private static String digest(String token) {
+        try {
+            byte[] hash = ((MessageDigest) SHA_256.clone()).digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("SHA-256 digest is not cloneable", e);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class UntilTokenExpiry implements Expiry<String, JwtPrincipal> {
+
+        @Override
+        public long expireAfterCreate(String key, JwtPrincipal principal, long currentTime) {
+            if (principal.expiresAt() == null) {
+                return 0;
+            }
+            long nanos = Duration.between(Instant.now(), principal.expiresAt()).toNanos();
+            return Math.max(nanos, 0);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, JwtPrincipal principal, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, principal, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, JwtPrincipal principal, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
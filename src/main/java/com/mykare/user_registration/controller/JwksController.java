@@ -0,0 +1,27 @@
+package com.mykare.user_registration.controller;
+
+import com.mykare.user_registration.config.JwtKeyRing;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+public class JwksController {
+
+    private final JwtKeyRing jwtKeyRing;
+
+    @Operation(summary = "To get the public keys that verify access tokens, empty when tokens are signed with a shared secret")
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic())
+                .body(Map.of("keys", jwtKeyRing.publicJwks()));
+    }
+}
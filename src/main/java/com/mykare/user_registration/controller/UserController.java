@@ -1,16 +1,23 @@
 package com.mykare.user_registration.controller;
 
 import com.mykare.user_registration.dto.*;
+import com.mykare.user_registration.service.UserBulkService;
+import com.mykare.user_registration.service.UserExportService;
 import com.mykare.user_registration.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api")
@@ -18,18 +25,51 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
+    private final UserExportService userExportService;
+    private final UserBulkService userBulkService;
 
     @Operation(summary = "To register the user")
     @PostMapping("/v1/register")
-    public ResponseEntity<UserResponseDTO> registerUser(@RequestBody @Valid UserRequestDTO userRequestDTO) {
-        UserResponseDTO response = userService.registerUser(userRequestDTO);
-        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    public CompletableFuture<ResponseEntity<UserResponseDTO>> registerUser(@RequestBody @Valid UserRequestDTO userRequestDTO) {
+        return userService.registerUserAsync(userRequestDTO)
+                .thenApply(response -> new ResponseEntity<>(response, HttpStatus.CREATED));
+    }
+
+    @Operation(summary = "To register many users at once by admin passing admin's token, returns a per-row report")
+    @PostMapping("/v1/users/bulk")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkRegistrationResponseDTO> registerUsers(@RequestBody List<UserRequestDTO> userRequestDTOs) {
+        BulkRegistrationResponseDTO response = userBulkService.registerUsers(userRequestDTOs);
+        return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
     @Operation(summary = "To validate the registered user by mail and password")
     @PostMapping("/v1/validate")
-    public ResponseEntity<ValidationResponseDTO> loginUser(@RequestBody ValidationRequestDTO validationRequestDTO) {
-        ValidationResponseDTO response = userService.validateUser(validationRequestDTO);
+    public CompletableFuture<ResponseEntity<ValidationResponseDTO>> loginUser(@RequestBody ValidationRequestDTO validationRequestDTO,
+                                                                            HttpServletRequest request) {
+        return userService.validateUserAsync(validationRequestDTO, request.getRemoteAddr())
+                .thenApply(response -> new ResponseEntity<>(response, HttpStatus.OK));
+    }
+
+    @Operation(summary = "To get a new access token and refresh token in exchange for a refresh token, without the password")
+    @PostMapping("/v1/token/refresh")
+    public ResponseEntity<ValidationResponseDTO> refreshToken(@RequestBody @Valid RefreshTokenRequestDTO refreshTokenRequestDTO) {
+        ValidationResponseDTO response = userService.refreshToken(refreshTokenRequestDTO);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    @Operation(summary = "To log out by revoking the token passed in the Authorization header")
+    @PostMapping("/v1/logout")
+    public ResponseEntity<TokenRevocationResponseDTO> logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization) {
+        TokenRevocationResponseDTO response = userService.logout(authorization.substring("Bearer ".length()));
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    @Operation(summary = "To revoke every token issued to the user so far by admin passing admin's token")
+    @PostMapping("/v1/users/{email}/revoke-tokens")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<TokenRevocationResponseDTO> revokeTokens(@PathVariable String email) {
+        TokenRevocationResponseDTO response = userService.revokeAllTokens(email);
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
@@ -41,6 +81,34 @@ public class UserController {
         return new ResponseEntity<>(users, HttpStatus.OK);
     }
 
+    @Operation(summary = "To page through users by cursor, pass the returned nextCursor to get the next page")
+    @GetMapping("/v1/users/cursor")
+    public ResponseEntity<UserSliceResponseDTO> getUsersByCursor(@RequestParam(required = false) String cursor,
+                                                                 @RequestParam(defaultValue = "10") int size) {
+        UserSliceResponseDTO users = userService.getUsersAfter(cursor, size);
+        return new ResponseEntity<>(users, HttpStatus.OK);
+    }
+
+    @Operation(summary = "To export all users as NDJSON or CSV by admin passing admin's token")
+    @GetMapping("/v1/users/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public void exportUsers(@RequestParam(defaultValue = "NDJSON") UserExportService.Format format,
+                            HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(format.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=users." + format.getExtension());
+        userExportService.export(format, response.getOutputStream());
+    }
+
+    @Operation(summary = "To delete users by a list of emails or by role/gender/created-before filter by admin passing admin's token")
+    @PostMapping("/v1/users/bulk/delete")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkDeleteResponseDTO> deleteUsers(@RequestBody BulkDeleteRequestDTO bulkDeleteRequestDTO) {
+        BulkDeleteResponseDTO response = userBulkService.deleteUsers(bulkDeleteRequestDTO);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
     @Operation(summary = "To delete the user by admin passing admin's token")
     @DeleteMapping("/v1/users/{email}")
     @PreAuthorize("hasRole('ADMIN')")
@@ -0,0 +1,26 @@
+package com.mykare.user_registration.dto;
+
+import com.mykare.user_registration.model.Gender;
+import com.mykare.user_registration.model.Role;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Either a list of emails or a filter; filter fields that are set are combined with AND.
+ */
+public record BulkDeleteRequestDTO(
+        List<String> emails,
+        Role role,
+        Gender gender,
+        Instant createdBefore
+) {
+
+    public boolean hasEmails() {
+        return emails != null && !emails.isEmpty();
+    }
+
+    public boolean hasFilter() {
+        return role != null || gender != null || createdBefore != null;
+    }
+}
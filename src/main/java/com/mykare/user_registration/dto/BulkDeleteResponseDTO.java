@@ -0,0 +1,9 @@
+package com.mykare.user_registration.dto;
+
+public record BulkDeleteResponseDTO(
+        long deleted,
+        int protectedSkipped,
+        boolean hasMore,
+        String message
+) {
+}
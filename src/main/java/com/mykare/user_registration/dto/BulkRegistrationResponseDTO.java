@@ -0,0 +1,11 @@
+package com.mykare.user_registration.dto;
+
+import java.util.List;
+
+public record BulkRegistrationResponseDTO(
+        int total,
+        int created,
+        int failed,
+        List<BulkRegistrationResultDTO> results
+) {
+}
@@ -0,0 +1,10 @@
+package com.mykare.user_registration.dto;
+
+public record BulkRegistrationResultDTO(
+        int index,
+        String email,
+        BulkRowStatus status,
+        Long id,
+        String message
+) {
+}
@@ -0,0 +1,8 @@
+package com.mykare.user_registration.dto;
+
+public enum BulkRowStatus {
+    CREATED,
+    DUPLICATE,
+    INVALID,
+    FAILED
+}
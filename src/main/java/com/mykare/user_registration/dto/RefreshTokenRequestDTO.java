@@ -0,0 +1,8 @@
+package com.mykare.user_registration.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+public record RefreshTokenRequestDTO(
+        @NotBlank(message = "Refresh token is required") String refreshToken
+) {
+}
@@ -0,0 +1,5 @@
+package com.mykare.user_registration.dto;
+
+public record TokenRevocationResponseDTO(String email, String message) {
+
+}
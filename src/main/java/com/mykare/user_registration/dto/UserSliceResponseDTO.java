@@ -0,0 +1,10 @@
+package com.mykare.user_registration.dto;
+
+import java.util.List;
+
+public record UserSliceResponseDTO(
+        List<UserResponseDTO> users,
+        String nextCursor,
+        boolean hasNext
+) {
+}
@@ -4,7 +4,9 @@ public record ValidationResponseDTO(
         String message,
         String token,
 
-        String expirationAfter
+        String expirationAfter,
+
+        String refreshToken
 ) {
 
 }
@@ -0,0 +1,8 @@
+package com.mykare.user_registration.exception;
+
+public class BulkLimitExceededException extends RuntimeException {
+
+    public BulkLimitExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.mykare.user_registration.exception;
+
+public class InvalidBulkRequestException extends RuntimeException {
+
+    public InvalidBulkRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.mykare.user_registration.exception;
+
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
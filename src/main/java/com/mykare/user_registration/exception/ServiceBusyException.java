@@ -0,0 +1,8 @@
+package com.mykare.user_registration.exception;
+
+public class ServiceBusyException extends RuntimeException {
+
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,57 @@
+package com.mykare.user_registration.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+
+/**
+ * A refresh token as stored at rest: only the SHA-256 hash of the opaque value
+ * handed to the client is kept. Every rotation of the same login shares a
+ * {@link #familyId}, so presenting an already used token revokes the whole family.
+ */
+@Entity
+@Data
+@Table(name = "refresh_token",
+        uniqueConstraints = @UniqueConstraint(name = "uk_refresh_token_hash", columnNames = "token_hash"),
+        indexes = {
+                @Index(name = "idx_refresh_token_family", columnList = "family_id"),
+                @Index(name = "idx_refresh_token_user", columnList = "user_email")
+        })
+@AllArgsConstructor
+@NoArgsConstructor
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "refresh_token_seq")
+    @SequenceGenerator(name = "refresh_token_seq", sequenceName = "refresh_token_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "token_hash", nullable = false, length = 64)
+    private String tokenHash;
+
+    @Column(name = "family_id", nullable = false, length = 36)
+    private String familyId;
+
+    /**
+     * Normalized email of the owner.
+     */
+    @Column(name = "user_email", nullable = false)
+    private String userEmail;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    @Column(name = "used_at")
+    private Instant usedAt;
+
+    @Column(name = "revoked", nullable = false)
+    private boolean revoked;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private Instant createdAt;
+}
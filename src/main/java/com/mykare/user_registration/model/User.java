@@ -1,5 +1,6 @@
 package com.mykare.user_registration.model;
 
+import com.mykare.user_registration.utils.EmailNormalizer;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -7,24 +8,40 @@ import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
 
 @Entity
 @Data
-@Table(name = "user_data")
+@Table(name = "user_data",
+        uniqueConstraints = @UniqueConstraint(name = User.EMAIL_UNIQUE_CONSTRAINT, columnNames = "email_normalized"),
+        indexes = @Index(name = "idx_user_data_created_at", columnList = "created_at"))
 @AllArgsConstructor
 @NoArgsConstructor
 public class User {
+
+    public static final String EMAIL_UNIQUE_CONSTRAINT = "uk_user_data_email_normalized";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_data_seq")
+    @SequenceGenerator(name = "user_data_seq", sequenceName = "user_data_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Name is required")
     private String name;
 
     @Email(message = "Email must be valid")
-    @Column(unique = true)
     private String email;
 
+    /**
+     * Lower-cased copy of {@link #email} kept in sync by {@link #setEmail}; carries
+     * the unique index so every lookup is an index seek and case variants of the
+     * same address cannot be registered twice.
+     */
+    @Column(name = "email_normalized", nullable = false)
+    private String normalizedEmail;
+
     @NotNull(message = "gender is required")
     @Enumerated(EnumType.STRING)
     @Column(name = "gender", columnDefinition = "VARCHAR(255)")
@@ -37,4 +54,23 @@ public class User {
     @Column(name = "role", columnDefinition = "VARCHAR(255)")
     private Role role;
 
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private Instant createdAt;
+
+    public User(Long id, String name, String email, Gender gender, String password, Role role) {
+        this(id, name, email, EmailNormalizer.normalize(email), gender, password, role, null);
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+        this.normalizedEmail = EmailNormalizer.normalize(email);
+    }
+
+    @PrePersist
+    @PreUpdate
+    void normalizeEmail() {
+        this.normalizedEmail = EmailNormalizer.normalize(email);
+    }
+
 }
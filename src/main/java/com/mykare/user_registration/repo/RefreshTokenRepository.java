@@ -0,0 +1,41 @@
+package com.mykare.user_registration.repo;
+
+import com.mykare.user_registration.model.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Optional;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    /**
+     * Marks the token used only if nobody else has; returns 0 when a concurrent
+     * refresh with the same token got there first.
+     */
+    @Modifying
+    @Query("update RefreshToken t set t.usedAt = :usedAt where t.id = :id and t.usedAt is null and t.revoked = false")
+    int markUsed(Long id, Instant usedAt);
+
+    @Modifying
+    @Query("update RefreshToken t set t.revoked = true where t.familyId = :familyId")
+    int revokeFamily(String familyId);
+
+    @Modifying
+    @Query("delete from RefreshToken t where t.userEmail = :userEmail")
+    int deleteByUserEmail(String userEmail);
+
+    @Modifying
+    @Query("delete from RefreshToken t where t.userEmail in :userEmails")
+    int deleteByUserEmailIn(Collection<String> userEmails);
+
+    @Modifying
+    @Query("delete from RefreshToken t where t.expiresAt < :now")
+    int deleteExpired(Instant now);
+}
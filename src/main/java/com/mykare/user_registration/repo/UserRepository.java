@@ -1,11 +1,122 @@
 package com.mykare.user_registration.repo;
 
+import com.mykare.user_registration.dto.UserResponseDTO;
+import com.mykare.user_registration.model.Gender;
+import com.mykare.user_registration.model.Role;
 import com.mykare.user_registration.model.User;
+import com.mykare.user_registration.utils.EmailNormalizer;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
+/**
+ * Declared query methods get no transaction from Spring Data, so the reads are
+ * marked read-only here; with a replica configured that routes them to it.
+ */
 public interface UserRepository extends JpaRepository<User, Long> {
-    Optional<User> findByEmail(String email);
-    boolean existsByEmail(String email);
+
+    /**
+     * Selects only the columns of {@link UserResponseDTO}; the rows are built
+     * straight into DTOs, so no entity, password hash or dirty-checking snapshot
+     * is loaded into the persistence context.
+     */
+    String RESPONSE_PROJECTION = "select new com.mykare.user_registration.dto.UserResponseDTO("
+            + "u.id, u.name, u.email, u.gender, u.role) from User u ";
+
+    @Transactional(readOnly = true)
+    Optional<User> findByNormalizedEmail(String normalizedEmail);
+
+    @Transactional(readOnly = true)
+    boolean existsByNormalizedEmail(String normalizedEmail);
+
+    default Optional<User> findByEmail(String email) {
+        return findByNormalizedEmail(EmailNormalizer.normalize(email));
+    }
+
+    default boolean existsByEmail(String email) {
+        return existsByNormalizedEmail(EmailNormalizer.normalize(email));
+    }
+
+    /**
+     * Returns the normalized form of every given (already normalized) email that is taken.
+     */
+    @Transactional(readOnly = true)
+    @Query("select u.normalizedEmail from User u where u.normalizedEmail in :normalizedEmails")
+    Set<String> findExistingEmails(Collection<String> normalizedEmails);
+
+    @Modifying
+    @Query("delete from User u where u.normalizedEmail in :normalizedEmails")
+    int deleteByEmailIn(Collection<String> normalizedEmails);
+
+    /**
+     * Next chunk of ids matching a bulk-delete filter, seeking past {@code afterId};
+     * null filter fields match everything. The protected (normalized) email is never returned.
+     */
+    @Transactional(readOnly = true)
+    @Query("select u.id from User u where u.id > :afterId "
+            + "and (:role is null or u.role = :role) "
+            + "and (:gender is null or u.gender = :gender) "
+            + "and (:createdBefore is null or u.createdAt < :createdBefore) "
+            + "and u.normalizedEmail <> :protectedEmail "
+            + "order by u.id")
+    List<Long> findIdsForDeletion(Role role, Gender gender, Instant createdBefore, String protectedEmail,
+                                  Long afterId, Pageable pageable);
+
+    /**
+     * Whether the user with the given (normalized) email matches a bulk-delete
+     * filter, so a delete can report the protected account it left out.
+     */
+    @Transactional(readOnly = true)
+    @Query("select count(u) > 0 from User u where u.normalizedEmail = :normalizedEmail "
+            + "and (:role is null or u.role = :role) "
+            + "and (:gender is null or u.gender = :gender) "
+            + "and (:createdBefore is null or u.createdAt < :createdBefore)")
+    boolean matchesDeletionFilter(Role role, Gender gender, Instant createdBefore, String normalizedEmail);
+
+    @Transactional(readOnly = true)
+    @Query("select u.normalizedEmail from User u where u.id in :ids")
+    List<String> findNormalizedEmailsByIdIn(Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from User u where u.id in :ids")
+    int deleteByIdIn(Collection<Long> ids);
+
+    /**
+     * Offset page of users in id order, without a count query.
+     */
+    @Transactional(readOnly = true)
+    @Query(RESPONSE_PROJECTION + "order by u.id")
+    List<UserResponseDTO> findResponses(Pageable pageable);
+
+    /**
+     * Keyset page: seeks past {@code id} on the primary key index and fetches one
+     * extra row to detect a next page, so no count query is issued.
+     */
+    @Transactional(readOnly = true)
+    @Query(RESPONSE_PROJECTION + "where u.id > :id order by u.id")
+    Slice<UserResponseDTO> findResponsesAfterId(Long id, Pageable pageable);
+
+    /**
+     * Forward-only stream of every user as DTOs. Must be consumed inside a
+     * transaction and closed.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(RESPONSE_PROJECTION + "order by u.id")
+    Stream<UserResponseDTO> streamAllForExport();
 }
@@ -1,34 +1,121 @@
 package com.mykare.user_registration.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.mykare.user_registration.cache.SharedCacheStore;
+import com.mykare.user_registration.cache.TwoLevelCache;
+import com.mykare.user_registration.config.ReadYourWrites;
+import com.mykare.user_registration.config.RequestPathMetrics;
 import com.mykare.user_registration.exception.UserNotFoundException;
+import com.mykare.user_registration.model.Role;
 import com.mykare.user_registration.model.User;
 import com.mykare.user_registration.repo.UserRepository;
+import com.mykare.user_registration.utils.EmailNormalizer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.Collections;
 
+/**
+ * Loads users for authentication through a two-level read-through cache keyed by
+ * normalized email: a bounded local near-cache backed by the shared cache tier.
+ * The cache holds immutable snapshots rather than {@link UserDetails}, because
+ * Spring Security erases the password of the returned object after
+ * authentication. Callers that delete a user or change its password or role must
+ * call {@link #evict(String)}, which also reaches the other nodes.
+ * <p>
+ * Snapshots carry the BCrypt hash, since that is what a login checks, so the
+ * shared tier holds the same secret as {@code user_data}: a shared-store adapter
+ * must get the database's protection (a private network, authenticated and
+ * encrypted connections).
+ */
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+@Slf4j
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
 
-    public CustomUserDetailsService(UserRepository userRepository) {
+    private final TwoLevelCache<CachedUser> cache;
+
+    private final RequestPathMetrics metrics;
+
+    private final ReadYourWrites readYourWrites;
+
+    public CustomUserDetailsService(UserRepository userRepository,
+                                    SharedCacheStore sharedCacheStore,
+                                    ObjectMapper objectMapper,
+                                    RequestPathMetrics metrics,
+                                    ReadYourWrites readYourWrites,
+                                    @Value("${user.cache.maximum-size:10000}") long maximumSize,
+                                    @Value("${user.cache.ttl:5m}") Duration ttl) {
         this.userRepository = userRepository;
+        this.cache = new TwoLevelCache<>("users", CachedUser.class, sharedCacheStore, objectMapper, maximumSize, ttl);
+        this.metrics = metrics;
+        this.readYourWrites = readYourWrites;
+        metrics.monitor(cache);
     }
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email)
+        return metrics.timeUserDetailsLookup(() -> {
+            CachedUser cached = cache.get(EmailNormalizer.normalize(email), key -> readYourWrites.readUser(key,
+                    () -> userRepository.findByNormalizedEmail(key)
+                            .map(CachedUser::of)
+                            .orElse(null)));
+            if (cached == null) {
+                throw new UserNotFoundException("User not found");
+            }
+            return cached.toUserDetails();
+        });
+    }
+
+    /**
+     * Called by the authentication provider after a successful login whose stored
+     * hash uses an outdated algorithm or cost; persists the re-encoded password.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = readYourWrites.onPrimary(() -> userRepository.findByEmail(userDetails.getUsername()))
                 .orElseThrow(() -> new UserNotFoundException("User not found"));
+        user.setPassword(newPassword);
+        userRepository.save(user);
+        readYourWrites.recordWrite(user.getEmail());
+        evict(user.getEmail());
+        log.info("Upgraded password hash for user {}", user.getEmail());
+        return CachedUser.of(user).toUserDetails();
+    }
+
+    public void evict(String email) {
+        cache.invalidate(EmailNormalizer.normalize(email));
+    }
+
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+
+    public CacheStats cacheStats() {
+        return cache.localStats();
+    }
+
+    record CachedUser(String email, String password, Role role) {
+
+        static CachedUser of(User user) {
+            return new CachedUser(user.getEmail(), user.getPassword(), user.getRole());
+        }
 
-        return new org.springframework.security.core.userdetails.User(
-                user.getEmail(),
-                user.getPassword(),
-                Collections.singleton(new SimpleGrantedAuthority(user.getRole().name()))
-        );
+        UserDetails toUserDetails() {
+            return new org.springframework.security.core.userdetails.User(
+                    email,
+                    password,
+                    Collections.singleton(new SimpleGrantedAuthority(role.name()))
+            );
+        }
     }
 }
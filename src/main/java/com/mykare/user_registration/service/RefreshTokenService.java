@@ -0,0 +1,131 @@
+package com.mykare.user_registration.service;
+
+import com.mykare.user_registration.config.TokenRevocationList;
+import com.mykare.user_registration.exception.InvalidTokenException;
+import com.mykare.user_registration.model.RefreshToken;
+import com.mykare.user_registration.repo.RefreshTokenRepository;
+import com.mykare.user_registration.utils.EmailNormalizer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Issues and rotates opaque refresh tokens. The client gets 256 random bits; only
+ * their SHA-256 hash is stored, which is enough at rest for a secret of that
+ * entropy and keeps refreshes free of password hashing. Each refresh consumes the
+ * presented token and issues its successor in the same family. Presenting a token
+ * that was already consumed means it leaked, so the whole family and every access
+ * token of the user are revoked.
+ */
+@Service
+@Slf4j
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final TokenRevocationList tokenRevocationList;
+    private final Duration ttl;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               TokenRevocationList tokenRevocationList,
+                               @Value("${jwt.refresh.expiration:30d}") Duration ttl) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.tokenRevocationList = tokenRevocationList;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Starts a new token family for a fresh login and returns the raw token.
+     */
+    @Transactional
+    public String issue(String email) {
+        return store(EmailNormalizer.normalize(email), UUID.randomUUID().toString());
+    }
+
+    /**
+     * Consumes the presented token and returns its owner with the raw successor.
+     */
+    @Transactional(noRollbackFor = InvalidTokenException.class)
+    public Rotation rotate(String rawToken) {
+        RefreshToken current = refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .orElseThrow(() -> new InvalidTokenException("Invalid refresh token"));
+        Instant now = Instant.now();
+        if (current.isRevoked() || current.getUsedAt() != null
+                || refreshTokenRepository.markUsed(current.getId(), now) == 0) {
+            revokeFamily(current);
+            throw new InvalidTokenException("Invalid refresh token");
+        }
+        if (!current.getExpiresAt().isAfter(now)) {
+            throw new InvalidTokenException("Refresh token expired");
+        }
+        return new Rotation(current.getUserEmail(), store(current.getUserEmail(), current.getFamilyId()));
+    }
+
+    @Transactional
+    public void revokeAllFor(String email) {
+        refreshTokenRepository.deleteByUserEmail(EmailNormalizer.normalize(email));
+    }
+
+    /**
+     * Set-based {@link #revokeAllFor(String)} for already normalized emails.
+     */
+    @Transactional
+    public void revokeAllFor(Collection<String> normalizedEmails) {
+        refreshTokenRepository.deleteByUserEmailIn(normalizedEmails);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.refresh.purge-interval:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        int purged = refreshTokenRepository.deleteExpired(Instant.now());
+        if (purged > 0) {
+            log.info("Purged {} expired refresh tokens", purged);
+        }
+    }
+
+    private void revokeFamily(RefreshToken reused) {
+        log.warn("Refresh token reuse detected for user {}, revoking its sessions", reused.getUserEmail());
+        refreshTokenRepository.revokeFamily(reused.getFamilyId());
+        tokenRevocationList.revokeAllFor(reused.getUserEmail());
+    }
+
+    private String store(String email, String familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setTokenHash(hash(rawToken));
+        refreshToken.setFamilyId(familyId);
+        refreshToken.setUserEmail(email);
+        refreshToken.setExpiresAt(Instant.now().plus(ttl));
+        refreshTokenRepository.save(refreshToken);
+        return rawToken;
+    }
+
+    private static String hash(String rawToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(rawToken.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public record Rotation(String email, String refreshToken) {
+    }
+}
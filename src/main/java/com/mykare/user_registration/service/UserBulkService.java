@@ -0,0 +1,373 @@
+package com.mykare.user_registration.service;
+
+import com.mykare.user_registration.config.PasswordHashingExecutor;
+import com.mykare.user_registration.config.ReadYourWrites;
+import com.mykare.user_registration.config.TokenRevocationList;
+import com.mykare.user_registration.dto.BulkDeleteRequestDTO;
+import com.mykare.user_registration.dto.BulkDeleteResponseDTO;
+import com.mykare.user_registration.dto.BulkRegistrationResponseDTO;
+import com.mykare.user_registration.dto.BulkRegistrationResultDTO;
+import com.mykare.user_registration.dto.BulkRowStatus;
+import com.mykare.user_registration.dto.UserRequestDTO;
+import com.mykare.user_registration.exception.BulkLimitExceededException;
+import com.mykare.user_registration.exception.InvalidBulkRequestException;
+import com.mykare.user_registration.model.User;
+import com.mykare.user_registration.repo.UserRepository;
+import com.mykare.user_registration.utils.ConstraintViolations;
+import com.mykare.user_registration.utils.EmailNormalizer;
+import com.mykare.user_registration.utils.UserUtils;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+
+/**
+ * Set-based variants of the single-user operations in {@link UserService}, for
+ * admin tooling that works on thousands of users at a time.
+ */
+@Service
+@Slf4j
+public class UserBulkService {
+
+    private static final int IN_CLAUSE_CHUNK = 1000;
+
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final UserUtils userUtils;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final CustomUserDetailsService userDetailsService;
+    private final TokenRevocationList tokenRevocationList;
+    private final RefreshTokenService refreshTokenService;
+    private final ReadYourWrites readYourWrites;
+    private final Validator validator;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${bulk.registration.max-rows:1000}")
+    private int maxRows;
+
+    @Value("${bulk.registration.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${bulk.registration.hash-batch-size:16}")
+    private int hashBatchSize;
+
+    @Value("${bulk.registration.max-hashing-threads:0}")
+    private int maxHashingThreads;
+
+    @Value("${bulk.delete.max-rows:10000}")
+    private int maxDeleteRows;
+
+    @Value("${bulk.delete.chunk-size:1000}")
+    private int deleteChunkSize;
+
+    @Value("${admin.email}")
+    private String adminEmail;
+
+    public UserBulkService(UserRepository userRepository,
+                           PasswordEncoder passwordEncoder,
+                           UserUtils userUtils,
+                           PasswordHashingExecutor passwordHashingExecutor,
+                           CustomUserDetailsService userDetailsService,
+                           TokenRevocationList tokenRevocationList,
+                           RefreshTokenService refreshTokenService,
+                           ReadYourWrites readYourWrites,
+                           Validator validator,
+                           EntityManager entityManager,
+                           PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.userUtils = userUtils;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+        this.userDetailsService = userDetailsService;
+        this.tokenRevocationList = tokenRevocationList;
+        this.refreshTokenService = refreshTokenService;
+        this.readYourWrites = readYourWrites;
+        this.validator = validator;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Registers every valid, not yet existing user in the request. Duplicates are
+     * found with one IN query per 1000 emails, passwords are hashed on a bounded
+     * share of the password hashing pool and inserts go out as JDBC batches, one
+     * transaction per chunk. Each input row gets a result in the report.
+     */
+    public BulkRegistrationResponseDTO registerUsers(List<UserRequestDTO> requests) {
+        if (requests.size() > maxRows) {
+            throw new BulkLimitExceededException("At most " + maxRows + " users can be registered per request");
+        }
+        BulkRegistrationResultDTO[] results = new BulkRegistrationResultDTO[requests.size()];
+
+        Map<String, Integer> candidates = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            UserRequestDTO request = requests.get(i);
+            if (request == null) {
+                results[i] = result(i, null, BulkRowStatus.INVALID, null, "Row is empty");
+                continue;
+            }
+            Set<ConstraintViolation<UserRequestDTO>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                String message = violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining(", "));
+                results[i] = result(i, request, BulkRowStatus.INVALID, null, message);
+            } else if (candidates.putIfAbsent(EmailNormalizer.normalize(request.email()), i) != null) {
+                results[i] = result(i, request, BulkRowStatus.DUPLICATE, null, "Duplicate email in request");
+            }
+        }
+
+        Set<String> existing = findExistingEmails(new ArrayList<>(candidates.keySet()));
+        List<Integer> toInsert = new ArrayList<>();
+        candidates.forEach((email, index) -> {
+            if (existing.contains(email)) {
+                results[index] = result(index, requests.get(index), BulkRowStatus.DUPLICATE, null,
+                        "User with email " + requests.get(index).email() + " already exists");
+            } else {
+                toInsert.add(index);
+            }
+        });
+
+        List<User> users = hashInBatches(requests, toInsert);
+
+        for (int from = 0; from < users.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, users.size());
+            insertChunk(requests, toInsert.subList(from, to), users.subList(from, to), results);
+        }
+
+        int created = (int) Arrays.stream(results).filter(r -> r.status() == BulkRowStatus.CREATED).count();
+        log.info("Bulk registration: {} rows, {} created", requests.size(), created);
+        return new BulkRegistrationResponseDTO(requests.size(), created, requests.size() - created, Arrays.asList(results));
+    }
+
+    private Set<String> findExistingEmails(List<String> emails) {
+        Set<String> existing = new HashSet<>();
+        for (int from = 0; from < emails.size(); from += IN_CLAUSE_CHUNK) {
+            existing.addAll(userRepository.findExistingEmails(
+                    emails.subList(from, Math.min(from + IN_CLAUSE_CHUNK, emails.size()))));
+        }
+        return existing;
+    }
+
+    /**
+     * Hashes the rows in small batches on the shared password hashing pool, with
+     * at most {@code max-hashing-threads} batches (half the pool by default) running
+     * or queued at a time. Each batch is short, so logins and single registrations
+     * get a worker between batches and the import never fills the pool's queue.
+     */
+    private List<User> hashInBatches(List<UserRequestDTO> requests, List<Integer> indices) {
+        if (indices.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Semaphore inFlight = new Semaphore(hashingThreads());
+        List<CompletableFuture<List<User>>> futures = new ArrayList<>();
+        try {
+            for (int from = 0; from < indices.size(); from += hashBatchSize) {
+                List<Integer> batch = indices.subList(from, Math.min(from + hashBatchSize, indices.size()));
+                inFlight.acquire();
+                try {
+                    futures.add(passwordHashingExecutor.submit(() -> batch.stream()
+                                    .map(index -> userUtils.dtoToUser(requests.get(index), passwordEncoder))
+                                    .collect(Collectors.toList()))
+                            .whenComplete((users, e) -> inFlight.release()));
+                } catch (RuntimeException e) {
+                    inFlight.release();
+                    throw e;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing passwords", e);
+        }
+        List<User> users = new ArrayList<>(indices.size());
+        try {
+            futures.forEach(future -> users.addAll(future.join()));
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return users;
+    }
+
+    private int hashingThreads() {
+        int threads = maxHashingThreads > 0 ? maxHashingThreads : passwordHashingExecutor.getPoolSize() / 2;
+        return Math.max(1, Math.min(threads, passwordHashingExecutor.getPoolSize()));
+    }
+
+    private void insertChunk(List<UserRequestDTO> requests, List<Integer> indices, List<User> users,
+                             BulkRegistrationResultDTO[] results) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                userRepository.saveAll(users);
+                userRepository.flush();
+            });
+            for (int i = 0; i < users.size(); i++) {
+                int index = indices.get(i);
+                results[index] = result(index, requests.get(index), BulkRowStatus.CREATED, users.get(i).getId(), null);
+                readYourWrites.recordWrite(users.get(i).getEmail());
+            }
+        } catch (RuntimeException e) {
+            // the chunk rolled back as a whole (a concurrent registration took one of the
+            // emails, a transient JDBC error, ...); retry it row by row so every row is
+            // reported as what was actually committed
+            log.warn("Batch insert failed, retrying {} rows individually", users.size(), e);
+            for (int i = 0; i < users.size(); i++) {
+                insertSingle(requests, indices.get(i), users.get(i), results);
+            }
+        } finally {
+            entityManager.clear();
+        }
+    }
+
+    private void insertSingle(List<UserRequestDTO> requests, int index, User user,
+                              BulkRegistrationResultDTO[] results) {
+        user.setId(null);
+        try {
+            User saved = transactionTemplate.execute(status -> userRepository.saveAndFlush(user));
+            results[index] = result(index, requests.get(index), BulkRowStatus.CREATED, saved.getId(), null);
+            readYourWrites.recordWrite(saved.getEmail());
+        } catch (DataIntegrityViolationException e) {
+            if (!ConstraintViolations.isDuplicateEmail(e)) {
+                log.error("Bulk registration failed for row {}", index, e);
+                results[index] = result(index, requests.get(index), BulkRowStatus.FAILED, null, "Could not register user");
+                return;
+            }
+            results[index] = result(index, requests.get(index), BulkRowStatus.DUPLICATE, null,
+                    "User with email " + user.getEmail() + " already exists");
+        } catch (RuntimeException e) {
+            log.error("Bulk registration failed for row {}", index, e);
+            results[index] = result(index, requests.get(index), BulkRowStatus.FAILED, null, "Could not register user");
+        }
+    }
+
+    /**
+     * Deletes by email list or by filter with set-based DELETE statements, one
+     * bounded chunk per transaction so locks are held briefly. The configured admin
+     * account is never deleted.
+     */
+    public BulkDeleteResponseDTO deleteUsers(BulkDeleteRequestDTO request) {
+        if (request.hasEmails() == request.hasFilter()) {
+            throw new InvalidBulkRequestException("Provide either a list of emails or at least one filter");
+        }
+        BulkDeleteResponseDTO response = request.hasEmails()
+                ? deleteByEmails(request.emails())
+                : deleteByFilter(request);
+        log.info("Bulk delete removed {} users", response.deleted());
+        return response;
+    }
+
+    private BulkDeleteResponseDTO deleteByEmails(List<String> emails) {
+        if (emails.size() > maxDeleteRows) {
+            throw new BulkLimitExceededException("At most " + maxDeleteRows + " users can be deleted per request");
+        }
+        String protectedEmail = EmailNormalizer.normalize(adminEmail);
+        List<String> normalized = emails.stream()
+                .filter(Objects::nonNull)
+                .map(EmailNormalizer::normalize)
+                .collect(Collectors.toList());
+        List<String> deletable = normalized.stream()
+                .filter(email -> !email.equals(protectedEmail))
+                .distinct()
+                .collect(Collectors.toList());
+        int skipped = (int) normalized.stream().filter(protectedEmail::equals).count();
+
+        long deleted = 0;
+        for (int from = 0; from < deletable.size(); from += deleteChunkSize) {
+            List<String> chunk = deletable.subList(from, Math.min(from + deleteChunkSize, deletable.size()));
+            deleted += transactionTemplate.execute(status -> {
+                int removed = userRepository.deleteByEmailIn(chunk);
+                refreshTokenService.revokeAllFor(chunk);
+                return removed;
+            });
+            chunk.forEach(this::forget);
+        }
+        entityManager.clear();
+        return new BulkDeleteResponseDTO(deleted, skipped, false, "Users deleted successfully");
+    }
+
+    /**
+     * Each chunk is looked up and deleted in one read-write transaction, so the
+     * lookup runs on the primary and sees exactly the rows the delete removes.
+     * Like the email mode, one request deletes at most {@code max-rows} users; when
+     * more match, the response says so and the caller repeats the request.
+     */
+    private BulkDeleteResponseDTO deleteByFilter(BulkDeleteRequestDTO request) {
+        String protectedEmail = EmailNormalizer.normalize(adminEmail);
+        int skipped = Boolean.TRUE.equals(transactionTemplate.execute(status -> userRepository.matchesDeletionFilter(
+                request.role(), request.gender(), request.createdBefore(), protectedEmail))) ? 1 : 0;
+        long deleted = 0;
+        long afterId = 0;
+        while (deleted < maxDeleteRows) {
+            long fromId = afterId;
+            int limit = (int) Math.min(deleteChunkSize, maxDeleteRows - deleted);
+            DeletedChunk chunk = transactionTemplate.execute(status -> {
+                List<Long> ids = userRepository.findIdsForDeletion(request.role(), request.gender(),
+                        request.createdBefore(), protectedEmail, fromId, PageRequest.of(0, limit));
+                if (ids.isEmpty()) {
+                    return null;
+                }
+                List<String> emails = userRepository.findNormalizedEmailsByIdIn(ids);
+                int removed = userRepository.deleteByIdIn(ids);
+                refreshTokenService.revokeAllFor(emails);
+                return new DeletedChunk(ids.get(ids.size() - 1), emails, removed);
+            });
+            if (chunk == null) {
+                break;
+            }
+            deleted += chunk.removed();
+            chunk.emails().forEach(this::forget);
+            afterId = chunk.lastId();
+        }
+        entityManager.clear();
+        long lastId = afterId;
+        boolean hasMore = deleted >= maxDeleteRows && Boolean.TRUE.equals(transactionTemplate.execute(status ->
+                !userRepository.findIdsForDeletion(request.role(), request.gender(), request.createdBefore(),
+                        protectedEmail, lastId, PageRequest.of(0, 1)).isEmpty()));
+        return new BulkDeleteResponseDTO(deleted, skipped, hasMore, hasMore
+                ? "Deleted the first " + deleted + " matching users, repeat the request to delete the rest"
+                : "Users deleted successfully");
+    }
+
+    /**
+     * Drops the cached login of a deleted user, keeps reads of it off a lagging replica
+     * and revokes the access tokens already issued to it. Its refresh tokens are
+     * deleted together with the user, so they cannot outlive a re-registration.
+     */
+    private void forget(String email) {
+        readYourWrites.recordWrite(email);
+        userDetailsService.evict(email);
+        tokenRevocationList.revokeAllFor(email);
+    }
+
+    private static BulkRegistrationResultDTO result(int index, UserRequestDTO request, BulkRowStatus status,
+                                                    Long id, String message) {
+        return new BulkRegistrationResultDTO(index, request == null ? null : request.email(), status, id, message);
+    }
+
+    private record DeletedChunk(long lastId, List<String> emails, int removed) {
+    }
+}
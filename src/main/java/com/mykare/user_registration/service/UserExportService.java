@@ -0,0 +1,101 @@
+package com.mykare.user_registration.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mykare.user_registration.dto.UserResponseDTO;
+import com.mykare.user_registration.repo.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes every user to an output stream straight from a forward-only database
+ * cursor. Rows are mapped to DTOs by the query itself, so the persistence context
+ * stays empty and memory use does not grow with the table.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserExportService {
+
+    static final int FLUSH_EVERY = 500;
+
+    private static final byte[] NEWLINE = "\n".getBytes(StandardCharsets.UTF_8);
+
+    private static final String CSV_HEADER = "id,name,email,gender,role\n";
+
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long export(Format format, OutputStream out) throws IOException {
+        if (format == Format.CSV) {
+            out.write(CSV_HEADER.getBytes(StandardCharsets.UTF_8));
+        }
+        long count = 0;
+        try (Stream<UserResponseDTO> users = userRepository.streamAllForExport()) {
+            Iterator<UserResponseDTO> iterator = users.iterator();
+            while (iterator.hasNext()) {
+                UserResponseDTO user = iterator.next();
+                if (format == Format.CSV) {
+                    out.write(toCsvLine(user).getBytes(StandardCharsets.UTF_8));
+                } else {
+                    out.write(objectMapper.writeValueAsBytes(user));
+                    out.write(NEWLINE);
+                }
+                count++;
+                if (count == 1 || count % FLUSH_EVERY == 0) {
+                    out.flush();
+                }
+            }
+        }
+        out.flush();
+        log.info("Exported {} users as {}", count, format);
+        return count;
+    }
+
+    private static String toCsvLine(UserResponseDTO user) {
+        return user.id() + ","
+                + csvField(user.name()) + ","
+                + csvField(user.email()) + ","
+                + user.gender() + ","
+                + user.role() + "\n";
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -1,29 +1,39 @@
 package com.mykare.user_registration.service;
 
+import com.mykare.user_registration.config.JwtPrincipal;
 import com.mykare.user_registration.config.JwtService;
+import com.mykare.user_registration.config.LoginThrottle;
+import com.mykare.user_registration.config.PasswordHashingExecutor;
+import com.mykare.user_registration.config.ReadYourWrites;
+import com.mykare.user_registration.config.RequestPathMetrics;
+import com.mykare.user_registration.config.RequestPathMetrics.UserOperation;
+import com.mykare.user_registration.config.TokenRevocationList;
 import com.mykare.user_registration.dto.*;
 import com.mykare.user_registration.exception.AccessDeniedException;
 import com.mykare.user_registration.exception.InvalidCredentialsException;
+import com.mykare.user_registration.exception.InvalidTokenException;
 import com.mykare.user_registration.exception.UserAlreadyExistsException;
 import com.mykare.user_registration.exception.UserNotFoundException;
 import com.mykare.user_registration.model.Role;
 import com.mykare.user_registration.model.User;
 import com.mykare.user_registration.repo.UserRepository;
+import com.mykare.user_registration.utils.ConstraintViolations;
+import com.mykare.user_registration.utils.EmailNormalizer;
 import com.mykare.user_registration.utils.UserUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.Page;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
+import org.springframework.data.domain.Slice;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @RequiredArgsConstructor
@@ -34,65 +44,233 @@ public class UserService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final UserUtils userUtils;
-    private final AuthenticationManager authenticationManager;
     private final JwtService jwtService;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final CustomUserDetailsService userDetailsService;
+    private final TokenRevocationList tokenRevocationList;
+    private final RefreshTokenService refreshTokenService;
+    private final RequestPathMetrics metrics;
+    private final LoginThrottle loginThrottle;
+    private final ReadYourWrites readYourWrites;
+    private final AsyncTaskExecutor applicationTaskExecutor;
+
+    private static final String UNKNOWN_USER_PASSWORD = "userNotFoundPassword";
+
+    private volatile String unknownUserPassword;
 
     @Value("${admin.email}")
     private String adminEmail;
 
+    /**
+     * Inserts straight away and lets the unique index on email reject duplicates,
+     * which saves a query per registration and closes the check-then-insert race.
+     */
     public UserResponseDTO registerUser(UserRequestDTO userRequestDTO) {
-        if (userRepository.existsByEmail(userRequestDTO.email())) {
+        return metrics.timeUserOperation(UserOperation.REGISTER,
+                () -> insert(userRequestDTO, passwordEncoder.encode(userRequestDTO.password())));
+    }
+
+    /**
+     * Only the hash runs on the hashing pool; the insert follows on the
+     * application task executor, so a slow database never holds a hashing slot.
+     */
+    public CompletableFuture<UserResponseDTO> registerUserAsync(UserRequestDTO userRequestDTO) {
+        return metrics.timeUserOperationAsync(UserOperation.REGISTER, () -> passwordHashingExecutor
+                .submit(() -> passwordEncoder.encode(userRequestDTO.password()))
+                .thenApplyAsync(encoded -> insert(userRequestDTO, encoded), applicationTaskExecutor));
+    }
+
+    private UserResponseDTO insert(UserRequestDTO userRequestDTO, String encodedPassword) {
+        User user = userUtils.dtoToUser(userRequestDTO, encodedPassword);
+        User savedUser;
+        try {
+            savedUser = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            if (!ConstraintViolations.isDuplicateEmail(e)) {
+                throw e;
+            }
             log.error("User with email " + userRequestDTO.email() + " already exists");
             throw new UserAlreadyExistsException("User with email " + userRequestDTO.email() + " already exists");
         }
-        User user = userUtils.dtoToUser(userRequestDTO, passwordEncoder);
-        User savedUser = userRepository.save(user);
+        readYourWrites.recordWrite(savedUser.getEmail());
         return userUtils.userToDto(savedUser);
     }
 
-    public ValidationResponseDTO validateUser(ValidationRequestDTO validationRequestDTO) {
+    /**
+     * Runs a login as three steps: the throttle check and user lookup, the
+     * password match, and the token issue. Only the match goes to the hashing
+     * pool; the other two run on the application task executor.
+     */
+    public CompletableFuture<ValidationResponseDTO> validateUserAsync(ValidationRequestDTO validationRequestDTO,
+                                                                      String clientIp) {
+        return metrics.timeUserOperationAsync(UserOperation.VALIDATE, () -> CompletableFuture
+                .supplyAsync(() -> loadForLogin(validationRequestDTO, clientIp), applicationTaskExecutor)
+                .thenCompose(user -> passwordHashingExecutor
+                        .submit(() -> checkPassword(user, validationRequestDTO.password())))
+                .thenApplyAsync(check -> issueTokens(check, validationRequestDTO, clientIp),
+                        applicationTaskExecutor));
+    }
 
-        Authentication authentication;
+    public ValidationResponseDTO validateUser(ValidationRequestDTO validationRequestDTO, String clientIp) {
+        return metrics.timeUserOperation(UserOperation.VALIDATE, () -> {
+            UserDetails user = loadForLogin(validationRequestDTO, clientIp);
+            return issueTokens(checkPassword(user, validationRequestDTO.password()), validationRequestDTO, clientIp);
+        });
+    }
+
+    /**
+     * The throttle is checked once per login, here, on the sync and async paths
+     * alike; only a failed password check records against it. Returns null for
+     * an unknown email so the caller still spends a hash on it.
+     */
+    private UserDetails loadForLogin(ValidationRequestDTO validationRequestDTO, String clientIp) {
+        loginThrottle.checkAllowed(validationRequestDTO.email(), clientIp);
         try {
-            authentication = authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(
-                            validationRequestDTO.email(),
-                            validationRequestDTO.password()
-                    )
-            );
-        } catch (Exception e) {
+            return userDetailsService.loadUserByUsername(validationRequestDTO.email());
+        } catch (UserNotFoundException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The CPU-bound part of a login. Unknown emails are matched against a dummy
+     * hash so they take as long as a wrong password, and a stored hash with an
+     * outdated algorithm or cost is re-encoded while the raw password is at hand.
+     */
+    private PasswordCheck checkPassword(UserDetails user, String rawPassword) {
+        if (user == null) {
+            passwordEncoder.matches(rawPassword, unknownUserPassword());
+            return PasswordCheck.FAILED;
+        }
+        if (!passwordEncoder.matches(rawPassword, user.getPassword())) {
+            return PasswordCheck.FAILED;
+        }
+        String upgraded = passwordEncoder.upgradeEncoding(user.getPassword())
+                ? passwordEncoder.encode(rawPassword)
+                : null;
+        return new PasswordCheck(user, upgraded);
+    }
+
+    private String unknownUserPassword() {
+        String encoded = unknownUserPassword;
+        if (encoded == null) {
+            encoded = passwordEncoder.encode(UNKNOWN_USER_PASSWORD);
+            unknownUserPassword = encoded;
+        }
+        return encoded;
+    }
+
+    private ValidationResponseDTO issueTokens(PasswordCheck check, ValidationRequestDTO validationRequestDTO,
+                                              String clientIp) {
+        if (check.user() == null) {
+            loginThrottle.recordFailure(validationRequestDTO.email(), clientIp);
             log.error("Invalid email or password");
             throw new InvalidCredentialsException("Invalid email or password");
         }
+        if (check.upgradedPassword() != null) {
+            userDetailsService.updatePassword(check.user(), check.upgradedPassword());
+        }
 
-        String token = adminEmail.equalsIgnoreCase(validationRequestDTO.email())
-                ? jwtService.generateToken(authentication, Role.ADMIN.toString())
-                : jwtService.generateToken(authentication, Role.USER.toString());
+        String subject = check.user().getUsername();
+        String token = isAdminEmail(validationRequestDTO.email())
+                ? jwtService.generateToken(subject, Role.ADMIN.toString())
+                : jwtService.generateToken(subject, Role.USER.toString());
 
         return new ValidationResponseDTO("User validated successfully",
-                token, String.valueOf(jwtService.getExpirationTime() / (1000 * 60 * 60)) + " hour");
+                token, String.valueOf(jwtService.getExpirationTime() / (1000 * 60 * 60)) + " hour",
+                refreshTokenService.issue(subject));
 
     }
 
-    public List<UserResponseDTO> getAllUsers(int page, int size) {
-        PageRequest pageRequest = PageRequest.of(page, size);
-        Page<User> users = userRepository.findAll(pageRequest);
-        if (users.isEmpty()) {
-            return Collections.emptyList();
+    /**
+     * Outcome of the hashing step: the matched user, or none when the email is
+     * unknown or the password is wrong, plus the re-encoded password when the
+     * stored hash needs an upgrade.
+     */
+    private record PasswordCheck(UserDetails user, String upgradedPassword) {
+
+        static final PasswordCheck FAILED = new PasswordCheck(null, null);
+    }
+
+    /**
+     * Swaps a refresh token for a new access token and a new refresh token. No
+     * password is checked, so this costs one indexed lookup instead of a BCrypt hash.
+     */
+    public ValidationResponseDTO refreshToken(RefreshTokenRequestDTO refreshTokenRequestDTO) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshTokenRequestDTO.refreshToken());
+        if (!readYourWrites.readUser(rotation.email(), () -> userRepository.existsByNormalizedEmail(rotation.email()))) {
+            refreshTokenService.revokeAllFor(rotation.email());
+            throw new InvalidTokenException("Invalid refresh token");
         }
-        return users.stream()
-                .map(userUtils::userToDto)
-                .collect(Collectors.toList());
+        String role = isAdminEmail(rotation.email()) ? Role.ADMIN.toString() : Role.USER.toString();
+        return new ValidationResponseDTO("Token refreshed successfully",
+                jwtService.generateToken(rotation.email(), role),
+                String.valueOf(jwtService.getExpirationTime() / (1000 * 60 * 60)) + " hour",
+                rotation.refreshToken());
+    }
+
+    @Transactional(readOnly = true)
+    public List<UserResponseDTO> getAllUsers(int page, int size) {
+        return metrics.timeUserOperation(UserOperation.LIST, () -> listUsers(page, size));
+    }
+
+    private List<UserResponseDTO> listUsers(int page, int size) {
+        return userRepository.findResponses(PageRequest.of(page, size));
+    }
+
+    @Transactional(readOnly = true)
+    public UserSliceResponseDTO getUsersAfter(String cursor, int size) {
+        long lastId = cursor == null || cursor.isBlank() ? 0L : userUtils.decodeCursor(cursor);
+        Slice<UserResponseDTO> slice = userRepository.findResponsesAfterId(lastId, PageRequest.of(0, size));
+        List<UserResponseDTO> users = slice.getContent();
+        String nextCursor = slice.hasNext()
+                ? userUtils.encodeCursor(users.get(users.size() - 1).id())
+                : null;
+        return new UserSliceResponseDTO(users, nextCursor, slice.hasNext());
     }
 
     public UserDeleteResponseDto deleteUserByEmail(String email) {
-        User user = userRepository.findByEmail(email)
+        return metrics.timeUserOperation(UserOperation.DELETE, () -> deleteUser(email));
+    }
+
+    private UserDeleteResponseDto deleteUser(String email) {
+        User user = readYourWrites.onPrimary(() -> userRepository.findByEmail(email))
                 .orElseThrow(() -> new UserNotFoundException("User not found"));
-        if (user.getEmail().equalsIgnoreCase(adminEmail)) {
+        if (isAdminEmail(user.getNormalizedEmail())) {
             log.error("An admin is not allowed to delete admin.");
             throw new AccessDeniedException("An admin is not allowed to delete admin.");
         }
         userRepository.delete(user);
+        readYourWrites.recordWrite(user.getEmail());
+        userDetailsService.evict(user.getEmail());
+        tokenRevocationList.revokeAllFor(user.getEmail());
+        refreshTokenService.revokeAllFor(user.getEmail());
         return new UserDeleteResponseDto(user.getEmail(), "User deleted successfully");
     }
+
+    /**
+     * Revokes the presented token. Tokens issued before token ids were added can
+     * only be revoked together with every other token of the same user.
+     */
+    public TokenRevocationResponseDTO logout(String token) {
+        JwtPrincipal principal = jwtService.parseToken(token);
+        if (principal.tokenId() == null) {
+            tokenRevocationList.revokeAllFor(principal.subject());
+        } else {
+            tokenRevocationList.revoke(principal);
+        }
+        return new TokenRevocationResponseDTO(principal.subject(), "Token revoked successfully");
+    }
+
+    public TokenRevocationResponseDTO revokeAllTokens(String email) {
+        User user = readYourWrites.onPrimary(() -> userRepository.findByEmail(email))
+                .orElseThrow(() -> new UserNotFoundException("User not found"));
+        tokenRevocationList.revokeAllFor(user.getEmail());
+        refreshTokenService.revokeAllFor(user.getEmail());
+        return new TokenRevocationResponseDTO(user.getEmail(), "All tokens of the user revoked successfully");
+    }
+
+    private boolean isAdminEmail(String email) {
+        return EmailNormalizer.normalize(adminEmail).equals(EmailNormalizer.normalize(email));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,75 @@
+package com.mykare.user_registration.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size Bloom filter over strings. {@link #mightContain} never returns a false
+ * negative; false positives occur at roughly the rate the filter was sized for as
+ * long as no more than {@code expectedInsertions} keys are added. Reads and
+ * writes are lock-free.
+ */
+public final class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    public BloomFilter(int expectedInsertions, double falsePositiveRate) {
+        int n = Math.max(expectedInsertions, 1);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bitCount = Math.max(64, (m + 63) / 64 * 64);
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+        this.bits = new AtomicLongArray((int) (bitCount / 64));
+    }
+
+    public void put(String key) {
+        long hash = murmur64(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long index = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            long current;
+            do {
+                current = bits.get(word);
+            } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    public boolean mightContain(String key) {
+        long hash = murmur64(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long index = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long bitSize() {
+        return bitCount;
+    }
+
+    /**
+     * 64-bit hash of the UTF-8 bytes using the MurmurHash3 finalizer as mixer.
+     */
+    static long murmur64(String key) {
+        long h = 0x9E3779B97F4A7C15L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xFF;
+            h *= 0xC6A4A7935BD1E995L;
+            h ^= h >>> 47;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,34 @@
+package com.mykare.user_registration.utils;
+
+import com.mykare.user_registration.model.User;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+
+public final class ConstraintViolations {
+
+    private ConstraintViolations() {
+    }
+
+    /**
+     * True when the failed insert or update collided with the unique constraint
+     * {@code uk_user_data_email_normalized} on {@code user_data.email_normalized},
+     * i.e. another row already holds that email in some letter case.
+     */
+    public static boolean isDuplicateEmail(DataIntegrityViolationException ex) {
+        Throwable cause = ex;
+        while (cause != null && !(cause instanceof ConstraintViolationException)) {
+            cause = cause.getCause();
+        }
+        if (cause == null) {
+            return false;
+        }
+        ConstraintViolationException violation = (ConstraintViolationException) cause;
+        String constraintName = violation.getConstraintName();
+        if (constraintName != null) {
+            return constraintName.toLowerCase(Locale.ROOT).contains(User.EMAIL_UNIQUE_CONSTRAINT);
+        }
+        return violation.getKind() == ConstraintViolationException.ConstraintKind.UNIQUE;
+    }
+}
@@ -0,0 +1,17 @@
+package com.mykare.user_registration.utils;
+
+import java.util.Locale;
+
+public final class EmailNormalizer {
+
+    private EmailNormalizer() {
+    }
+
+    /**
+     * Canonical form used for storage, lookups and uniqueness: trimmed and
+     * lower-cased with a locale-independent mapping.
+     */
+    public static String normalize(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -2,23 +2,31 @@ package com.mykare.user_registration.utils;
 
 import com.mykare.user_registration.dto.UserRequestDTO;
 import com.mykare.user_registration.dto.UserResponseDTO;
+import com.mykare.user_registration.exception.InvalidCursorException;
 import com.mykare.user_registration.model.Gender;
 import com.mykare.user_registration.model.Role;
 import com.mykare.user_registration.model.User;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
 @Component
 public class UserUtils {
 
 
     public User dtoToUser(UserRequestDTO userRequestDTO, PasswordEncoder passwordEncoder) {
+        return dtoToUser(userRequestDTO, passwordEncoder.encode(userRequestDTO.password()));
+    }
+
+    public User dtoToUser(UserRequestDTO userRequestDTO, String encodedPassword) {
         User user = new User();
         user.setName(userRequestDTO.name());
         user.setEmail(userRequestDTO.email());
         Gender userGender = getGender(userRequestDTO.gender());
         user.setGender(userGender);
-        user.setPassword(passwordEncoder.encode(userRequestDTO.password()));
+        user.setPassword(encodedPassword);
         user.setRole(Role.USER);
         return user;
     }
@@ -27,6 +35,20 @@ public class UserUtils {
         return new UserResponseDTO(user.getId(), user.getName(), user.getEmail(), user.getGender(), user.getRole());
     }
 
+    public String encodeCursor(Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.valueOf(lastId).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public long decodeCursor(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            return Long.parseLong(decoded);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+    }
+
     public Gender getGender(String gender) {
         Gender userGender = Gender.NOT_MENTIONED;
         if(gender.equalsIgnoreCase("male"))
@@ -0,0 +1,135 @@
+package com.mykare.user_registration.utils;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Approximate per-key event counts over a sliding window in fixed memory. Each of
+ * the {@code depth} rows is a stripe of counters indexed by its own hash of the
+ * key, and a key's count is the minimum over its cells, so collisions can only
+ * inflate a count, never hide events. The current and the previous window are
+ * kept, and the previous one is weighted by how much of it still overlaps the
+ * sliding window. Updates are lock-free; a window is cleared by the first thread
+ * that sees it roll over, so an event racing with that clear may be lost.
+ */
+public final class WindowedCountMinSketch {
+
+    private final int depth;
+    private final int width;
+    private final long windowMillis;
+    private final LongSupplier clock;
+    private final AtomicIntegerArray[] generations;
+    private final AtomicLong currentWindow;
+
+    public WindowedCountMinSketch(int depth, int width, Duration window) {
+        this(depth, width, window, System::currentTimeMillis);
+    }
+
+    public WindowedCountMinSketch(int depth, int width, Duration window, LongSupplier clock) {
+        this.depth = Math.max(depth, 1);
+        this.width = Integer.highestOneBit(Math.max(width, 2) - 1) << 1;
+        this.windowMillis = Math.max(window.toMillis(), 1);
+        this.clock = clock;
+        this.generations = new AtomicIntegerArray[]{
+                new AtomicIntegerArray(this.depth * this.width),
+                new AtomicIntegerArray(this.depth * this.width)
+        };
+        this.currentWindow = new AtomicLong(clock.getAsLong() / windowMillis);
+    }
+
+    public void add(String key) {
+        long window = roll(clock.getAsLong());
+        AtomicIntegerArray counts = generations[(int) (window & 1)];
+        long hash = BloomFilter.murmur64(key);
+        for (int row = 0; row < depth; row++) {
+            counts.incrementAndGet(index(hash, row));
+        }
+    }
+
+    /**
+     * Events for the key in the last window length, never less than the true count
+     * apart from events lost to a concurrent roll-over.
+     */
+    public long estimate(String key) {
+        long now = clock.getAsLong();
+        long window = roll(now);
+        long hash = BloomFilter.murmur64(key);
+        int current = min(generations[(int) (window & 1)], hash);
+        int previous = min(generations[(int) ((window + 1) & 1)], hash);
+        long remaining = windowMillis - (now - window * windowMillis);
+        // the previous window's count weighted by its overlap, rounded up
+        return current + ((long) previous * remaining + windowMillis - 1) / windowMillis;
+    }
+
+    /**
+     * Milliseconds until {@link #estimate} for the key drops below {@code limit} if
+     * no further events arrive, or 0 if it already is below.
+     */
+    public long millisUntilBelow(String key, long limit) {
+        long now = clock.getAsLong();
+        long window = roll(now);
+        long hash = BloomFilter.murmur64(key);
+        int current = min(generations[(int) (window & 1)], hash);
+        int previous = min(generations[(int) ((window + 1) & 1)], hash);
+        long elapsed = now - window * windowMillis;
+        long allowedFromPrevious = limit - 1 - current;
+        if (allowedFromPrevious >= 0) {
+            return Math.max(0, decayMillis(previous, allowedFromPrevious) - elapsed);
+        }
+        // the current window alone is over the limit: it has to roll over and decay
+        return windowMillis - elapsed + decayMillis(current, Math.max(limit - 1, 0));
+    }
+
+    public long sizeInBytes() {
+        return 2L * depth * width * Integer.BYTES;
+    }
+
+    private long roll(long now) {
+        long window = now / windowMillis;
+        long seen = currentWindow.get();
+        while (seen < window) {
+            if (currentWindow.compareAndSet(seen, window)) {
+                clear(generations[(int) (window & 1)]);
+                if (window - seen > 1) {
+                    clear(generations[(int) ((window + 1) & 1)]);
+                }
+                return window;
+            }
+            seen = currentWindow.get();
+        }
+        return window;
+    }
+
+    /**
+     * Time into a window after which {@code count} events of the previous window
+     * weigh no more than {@code allowed}.
+     */
+    private long decayMillis(long count, long allowed) {
+        if (count <= allowed) {
+            return 0;
+        }
+        return ((count - allowed) * windowMillis + count - 1) / count;
+    }
+
+    private int min(AtomicIntegerArray counts, long hash) {
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counts.get(index(hash, row)));
+        }
+        return min;
+    }
+
+    private int index(long hash, int row) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        return row * width + ((h1 + row * h2) & (width - 1));
+    }
+
+    private static void clear(AtomicIntegerArray counts) {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+-- Portable across H2 and PostgreSQL. Sequences step by 50 to match the
+-- allocationSize of the pooled id generators, so Hibernate hands out 50 ids per
+-- round trip and can batch the inserts.
+
+create sequence user_data_seq start with 1 increment by 50;
+
+create table user_data (
+    id               bigint                      not null,
+    name             varchar(255)                not null,
+    email            varchar(255),
+    email_normalized varchar(255)                not null,
+    gender           varchar(255)                not null,
+    password         varchar(255)                not null,
+    role             varchar(255),
+    created_at       timestamp(6) with time zone,
+    constraint pk_user_data primary key (id),
+    constraint uk_user_data_email_normalized unique (email_normalized)
+);
+
+-- bulk delete by "created before"
+create index idx_user_data_created_at on user_data (created_at);
+
+create sequence refresh_token_seq start with 1 increment by 50;
+
+create table refresh_token (
+    id         bigint                      not null,
+    token_hash varchar(64)                 not null,
+    family_id  varchar(36)                 not null,
+    user_email varchar(255)                not null,
+    expires_at timestamp(6) with time zone not null,
+    used_at    timestamp(6) with time zone,
+    revoked    boolean                     not null,
+    created_at timestamp(6) with time zone,
+    constraint pk_refresh_token primary key (id),
+    constraint uk_refresh_token_hash unique (token_hash)
+);
+
+create index idx_refresh_token_family on refresh_token (family_id);
+create index idx_refresh_token_user on refresh_token (user_email);
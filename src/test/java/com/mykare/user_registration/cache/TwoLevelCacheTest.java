@@ -0,0 +1,55 @@
+package com.mykare.user_registration.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+class TwoLevelCacheTest {
+
+    private final InMemorySharedCacheStore store = new InMemorySharedCacheStore();
+
+    private final TwoLevelCache<String> nodeA = cache();
+
+    private final TwoLevelCache<String> nodeB = cache();
+
+    @Test
+    void get_ShouldNotKeepValueInEitherTier_WhenKeyIsInvalidatedWhileLoading() throws Exception {
+
+        CountDownLatch loading = new CountDownLatch(1);
+        CompletableFuture<String> staleLoad = CompletableFuture.supplyAsync(() -> nodeB.get("key", key -> {
+            loading.countDown();
+            // finish only once the change has been invalidated
+            while (store.get("users:key").isEmpty()) {
+                Thread.onSpinWait();
+            }
+            return "stale";
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        nodeA.invalidate("key");
+
+        assertEquals("stale", staleLoad.get(5, TimeUnit.SECONDS));
+        assertEquals(TwoLevelCache.TOMBSTONE, store.get("users:key").orElseThrow());
+        assertEquals("fresh", nodeB.get("key", key -> "fresh"));
+        assertEquals("fresh", nodeA.get("key", key -> "fresh"));
+    }
+
+    @Test
+    void get_ShouldShareLoadedValue_WhenKeyIsNotTombstoned() {
+
+        assertEquals("loaded", nodeA.get("key", key -> "loaded"));
+
+        assertEquals("loaded", nodeB.get("key", key -> fail("should be served by the shared tier")));
+        assertEquals(1, nodeB.sharedHits());
+    }
+
+    private TwoLevelCache<String> cache() {
+        return new TwoLevelCache<>("users", String.class, store, new ObjectMapper(), 100, Duration.ofMinutes(5));
+    }
+}
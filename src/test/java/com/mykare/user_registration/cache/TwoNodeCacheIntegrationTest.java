@@ -0,0 +1,66 @@
+package com.mykare.user_registration.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.mykare.user_registration.UserRegistrationApplication;
+import com.mykare.user_registration.dto.UserRequestDTO;
+import com.mykare.user_registration.exception.UserNotFoundException;
+import com.mykare.user_registration.service.CustomUserDetailsService;
+import com.mykare.user_registration.service.UserService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Two application contexts stand in for two replicas: they share one database and
+ * one {@link InMemorySharedCacheStore}, so an eviction on one node has to reach
+ * the near-cache of the other through the invalidation bus.
+ */
+class TwoNodeCacheIntegrationTest {
+
+    private static final InMemorySharedCacheStore SHARED_STORE = new InMemorySharedCacheStore();
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() {
+        nodeA = startNode();
+        nodeB = startNode();
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        nodeB.close();
+        nodeA.close();
+    }
+
+    @Test
+    void deleteOnOneNode_ShouldInvalidateCachedLoginOnTheOther() {
+
+        nodeA.getBean(UserService.class)
+                .registerUser(new UserRequestDTO("Replica", "replica@mykare.com", "female", "password1"));
+        CustomUserDetailsService usersOnB = nodeB.getBean(CustomUserDetailsService.class);
+        CustomUserDetailsService usersOnA = nodeA.getBean(CustomUserDetailsService.class);
+
+        usersOnB.loadUserByUsername("replica@mykare.com");
+        usersOnA.loadUserByUsername("Replica@mykare.com");
+        assertTrue(SHARED_STORE.get("users:replica@mykare.com").isPresent());
+
+        nodeA.getBean(UserService.class).deleteUserByEmail("replica@mykare.com");
+
+        assertEquals(TwoLevelCache.TOMBSTONE, SHARED_STORE.get("users:replica@mykare.com").orElseThrow());
+        assertThrows(UserNotFoundException.class, () -> usersOnB.loadUserByUsername("replica@mykare.com"));
+    }
+
+    private static ConfigurableApplicationContext startNode() {
+        return new SpringApplicationBuilder(UserRegistrationApplication.class)
+                .initializers(context -> context.getBeanFactory()
+                        .registerSingleton("testSharedCacheStore", SHARED_STORE))
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:two-node-cache;DB_CLOSE_DELAY=-1",
+                        "--password.bcrypt.strength=4");
+    }
+}
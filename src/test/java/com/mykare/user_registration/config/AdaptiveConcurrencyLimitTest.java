@@ -0,0 +1,96 @@
+package com.mykare.user_registration.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void tryAcquire_ShouldRejectOnceLimitIsInFlight() {
+
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, 3, 6);
+
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+
+        limit.release(System.nanoTime(), false);
+        assertTrue(limit.tryAcquire());
+    }
+
+    @Test
+    void onSample_ShouldGrowWhileLatencyStaysNearBaseline() {
+
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1, 100, 3, 6);
+        long start = System.nanoTime();
+
+        for (int i = 0; i < 200; i++) {
+            limit.onSample(start + i * MILLIS, start + i * MILLIS + 5 * MILLIS, 10, false);
+        }
+
+        assertTrue(limit.getLimit() > 10);
+    }
+
+    @Test
+    void onSample_ShouldNotGrow_WhenLimitIsNotInUse() {
+
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1, 100, 3, 6);
+        long start = System.nanoTime();
+
+        for (int i = 0; i < 200; i++) {
+            limit.onSample(start + i * MILLIS, start + i * MILLIS + 5 * MILLIS, 1, false);
+        }
+
+        assertEquals(10, limit.getLimit());
+    }
+
+    @Test
+    void onSample_ShouldSignalCongestion_WhenEstimatedQueueExceedsBetaOrRequestIsDropped() {
+
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 2, 100, 3, 6);
+        long start = System.nanoTime();
+
+        assertFalse(limit.onSample(start, start + 10 * MILLIS, 20, false));
+        // beta * log10(20) = 7.8; 20 * (1 - 10/16) = 7.5 queued: hold
+        assertFalse(limit.onSample(start, start + 16 * MILLIS, 20, false));
+        // 20 * (1 - 10/17) = 8.2 queued: congested
+        assertTrue(limit.onSample(start, start + 17 * MILLIS, 20, false));
+        assertTrue(limit.onSample(start, start + 10 * MILLIS, 20, true));
+        assertEquals(20, limit.getLimit());
+    }
+
+    @Test
+    void backOff_ShouldCutOncePerRound_DownToMinimum() {
+
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 2, 100, 3, 6);
+        long start = System.nanoTime() + MILLIS;
+
+        // queued requests that all started before the first cut only cut once
+        limit.backOff(start, start + 100 * MILLIS);
+        limit.backOff(start + 2 * MILLIS, start + 101 * MILLIS);
+        assertEquals(18, limit.getLimit());
+
+        for (int round = 0; round < 50; round++) {
+            long roundStart = start + (200 + round * 100) * MILLIS;
+            limit.backOff(roundStart, roundStart + 50 * MILLIS);
+        }
+        assertEquals(2, limit.getLimit());
+    }
+
+    @Test
+    void onSample_ShouldNotReadJitterAsCongestion_WhenLimitIsLarge() {
+
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(100, 2, 500, 3, 6);
+        long start = System.nanoTime();
+
+        assertFalse(limit.onSample(start, start + 100 * MILLIS, 100, false));
+        // beta * log10(100) = 12; 10% jitter is 100 * (1 - 100/110) = 9.1 queued: hold
+        assertFalse(limit.onSample(start, start + 110 * MILLIS, 100, false));
+        assertTrue(limit.onSample(start, start + 120 * MILLIS, 100, false));
+    }
+}
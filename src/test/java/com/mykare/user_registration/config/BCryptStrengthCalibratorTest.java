@@ -0,0 +1,27 @@
+package com.mykare.user_registration.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class BCryptStrengthCalibratorTest {
+
+    @Test
+    void calibrate_ShouldKeepMinimumStrength_WhenBudgetIsExceeded() {
+
+        BCryptStrengthCalibrator calibrator = new BCryptStrengthCalibrator(4, 0);
+
+        assertEquals(4, calibrator.calibrate());
+    }
+
+    @Test
+    void calibrate_ShouldRaiseStrength_WhenBudgetAllows() {
+
+        BCryptStrengthCalibrator calibrator = new BCryptStrengthCalibrator(4, 50);
+
+        int strength = calibrator.calibrate();
+
+        assertTrue(strength > 4);
+        assertTrue(strength <= BCryptStrengthCalibrator.MAX_STRENGTH);
+    }
+}
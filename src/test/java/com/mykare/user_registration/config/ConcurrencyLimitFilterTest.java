@@ -0,0 +1,167 @@
+package com.mykare.user_registration.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class ConcurrencyLimitFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(true, 10, 3, 6, 1,
+            new MockEnvironment().withProperty("concurrency.limit.validate.initial-limit", "2"), registry);
+
+    @Test
+    void doFilter_ShouldShedLoginsButServeReads_WhenLoginBudgetIsUsedUp() throws Exception {
+
+        List<MockHttpServletResponse> responses = new ArrayList<>();
+        holdPermits(2, "POST", "/api/v1/validate", () -> {
+            responses.add(response("POST", "/api/v1/validate"));
+            responses.add(response("GET", "/api/v1/users"));
+        });
+
+        assertEquals(503, responses.get(0).getStatus());
+        assertEquals("1", responses.get(0).getHeader("Retry-After"));
+        assertEquals(200, responses.get(1).getStatus());
+        assertEquals(1, registry.get("concurrency.shed").tag("group", "validate").counter().count());
+        assertEquals(0, registry.get("concurrency.inflight").tag("group", "validate").gauge().value());
+    }
+
+    @Test
+    void doFilter_ShouldShedLoginVariants_WhenPathIsNotCanonical() throws Exception {
+
+        List<Integer> statuses = new ArrayList<>();
+        holdPermits(2, "POST", "/api/v1/validate", () -> {
+            statuses.add(status("POST", "/api//v1/validate"));
+            statuses.add(status("POST", "/api/v1/validate;x=1"));
+            statuses.add(status("POST", "/api/v1/%76alidate"));
+        });
+
+        assertEquals(List.of(503, 503, 503), statuses);
+        assertEquals(3, registry.get("concurrency.shed").tag("group", "validate").counter().count());
+        assertEquals(0, registry.get("concurrency.shed").tag("group", "other").counter().count());
+    }
+
+    @Test
+    void doFilter_ShouldGiveCriticalReadsTheWholeGlobalCap_AndSheddableWorkOnlyItsShare() throws Exception {
+
+        List<Integer> statuses = new ArrayList<>();
+        holdPermits(8, "GET", "/api/v1/users", () -> {
+            statuses.add(status("GET", "/api/v1/users"));
+            statuses.add(status("POST", "/api/v1/register"));
+            statuses.add(status("DELETE", "/api/v1/users/a@mykare.com"));
+        });
+
+        assertEquals(List.of(200, 503, 503), statuses);
+    }
+
+    @Test
+    void doFilter_ShouldBackOffOnlyTheGroupThatSawCongestion() throws Exception {
+
+        holdPermits(1, "GET", "/api/v1/users", () -> filter.doFilter(request("POST", "/api/v1/register"),
+                new MockHttpServletResponse(), (request, response) -> ((HttpServletResponse) response).setStatus(503)));
+
+        assertEquals(18, registry.get("concurrency.limit").tag("group", "register").gauge().value());
+        assertEquals(100, registry.get("concurrency.limit").tag("group", "users").gauge().value());
+    }
+
+    @Test
+    void doFilter_ShouldNotCutAGroupBelowItsPriorityFloor() throws Exception {
+
+        for (int i = 0; i < 50; i++) {
+            Thread.sleep(1);
+            for (String[] route : new String[][]{{"GET", "/api/v1/users"}, {"DELETE", "/api/v1/users/a@mykare.com"},
+                    {"POST", "/api/v1/register"}}) {
+                filter.doFilter(request(route[0], route[1]), new MockHttpServletResponse(),
+                        (request, response) -> ((HttpServletResponse) response).setStatus(503));
+            }
+        }
+
+        assertEquals(100, registry.get("concurrency.limit").tag("group", "users").gauge().value());
+        assertEquals(10, registry.get("concurrency.limit").tag("group", "delete").gauge().value());
+        assertEquals(1, registry.get("concurrency.limit").tag("group", "register").gauge().value());
+    }
+
+    @Test
+    void doFilter_ShouldGiveBulkWorkAFixedLimitOfItsOwn() throws Exception {
+
+        List<Integer> statuses = new ArrayList<>();
+        holdPermits(4, "GET", "/api/v1/users/export", () -> {
+            statuses.add(status("POST", "/api/v1/users/bulk"));
+            statuses.add(status("GET", "/api/v1/users"));
+        });
+
+        assertEquals(List.of(503, 200), statuses);
+        assertEquals(1, registry.get("concurrency.shed").tag("group", "bulk").counter().count());
+        assertEquals(0, registry.get("concurrency.inflight").tag("group", "users").gauge().value());
+    }
+
+    @Test
+    void doFilter_ShouldNotSampleOrBackOffBulkWork() throws Exception {
+
+        filter.doFilter(request("POST", "/api/v1/users/bulk/delete"), new MockHttpServletResponse(),
+                (request, response) -> ((HttpServletResponse) response).setStatus(503));
+        holdPermits(1, "GET", "/api/v1/users/export", () -> filter.doFilter(request("POST", "/api/v1/register"),
+                new MockHttpServletResponse(), (request, response) -> ((HttpServletResponse) response).setStatus(503)));
+
+        assertEquals(4, registry.get("concurrency.limit").tag("group", "bulk").gauge().value());
+        assertEquals(18, registry.get("concurrency.limit").tag("group", "register").gauge().value());
+    }
+
+    @Test
+    void doFilter_ShouldNeverShedActuator() throws Exception {
+
+        List<Integer> statuses = new ArrayList<>();
+        holdPermits(10, "GET", "/api/v1/users", () -> statuses.add(status("GET", "/actuator/health")));
+
+        assertEquals(List.of(200), statuses);
+    }
+
+    /**
+     * Holds {@code count} permits of the given route at once and runs {@code body}
+     * while they are all in flight.
+     */
+    private void holdPermits(int count, String method, String path, ThrowingRunnable body) throws Exception {
+        if (count == 0) {
+            body.run();
+            return;
+        }
+        filter.doFilter(request(method, path), new MockHttpServletResponse(), (request, response) -> {
+            try {
+                holdPermits(count - 1, method, path, body);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private int status(String method, String path) throws Exception {
+        return response(method, path).getStatus();
+    }
+
+    private MockHttpServletResponse response(String method, String path) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(method, path), response, (request, r) -> {
+        });
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String method, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setRequestURI(path);
+        return request;
+    }
+
+    @FunctionalInterface
+    private interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,102 @@
+package com.mykare.user_registration.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mykare.user_registration.cache.InMemorySharedCacheStore;
+import com.mykare.user_registration.config.RequestPathMetrics;
+import com.mykare.user_registration.exception.InvalidTokenException;
+import com.mykare.user_registration.model.Role;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+class JwtKeyRingTest {
+
+    private static final String SECRET = "kD2YdFrvUsmOfvu/r5OWSHudfrD7ucj2gMs1OUZFlAA=";
+
+    private InMemorySharedCacheStore sharedCacheStore;
+
+    @BeforeEach
+    void setUp() {
+        sharedCacheStore = new InMemorySharedCacheStore();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"RS256", "ES256"})
+    void parseToken_ShouldAcceptTokensSignedWithRetiredKey_AfterRotation(String algorithm) {
+
+        JwtKeyRing keyRing = keyRing(algorithm);
+        JwtService jwtService = jwtService(keyRing);
+        String beforeRotation = jwtService.generateToken("test@mykare.com", Role.USER.toString());
+
+        keyRing.rotate();
+        String afterRotation = jwtService.generateToken("test@mykare.com", Role.USER.toString());
+
+        assertEquals("test@mykare.com", jwtService.parseToken(beforeRotation).subject());
+        assertEquals("test@mykare.com", jwtService.parseToken(afterRotation).subject());
+        assertEquals(2, keyRing.publicJwks().size());
+    }
+
+    @Test
+    void parseToken_ShouldAcceptTokensMintedOnAnotherNode_SharingTheStore() {
+
+        JwtService nodeA = jwtService(keyRing("ES256"));
+        JwtService nodeB = jwtService(keyRing("ES256"));
+
+        String token = nodeA.generateToken("test@mykare.com", Role.ADMIN.toString());
+
+        assertEquals("ADMIN", nodeB.parseToken(token).role());
+    }
+
+    @Test
+    void publicJwks_ShouldServeEveryNodesKeys_FromAnyNode() {
+
+        JwtKeyRing nodeA = keyRing("ES256");
+        JwtKeyRing nodeB = keyRing("ES256");
+        nodeB.rotate();
+
+        List<Object> kids = nodeA.publicJwks().stream().map(jwk -> jwk.get("kid")).toList();
+
+        assertEquals(3, kids.size());
+        assertTrue(kids.contains(nodeA.current().kid()));
+        assertTrue(kids.contains(nodeB.current().kid()));
+        assertEquals(nodeB.publicJwks(), nodeA.publicJwks());
+    }
+
+    @Test
+    void parseToken_ShouldRejectTokensSignedWithAnotherAlgorithm() {
+
+        String hmacToken = jwtService(keyRing("HS256")).generateToken("test@mykare.com", Role.ADMIN.toString());
+
+        assertThrows(InvalidTokenException.class, () -> jwtService(keyRing("RS256")).parseToken(hmacToken));
+    }
+
+    @Test
+    void publicJwks_ShouldExposeOnlyPublicParameters() {
+
+        List<Map<String, Object>> rsaKeys = keyRing("RS256").publicJwks();
+        List<Map<String, Object>> ecKeys = keyRing("ES256").publicJwks();
+
+        assertEquals("RSA", rsaKeys.get(0).get("kty"));
+        assertEquals("RS256", rsaKeys.get(0).get("alg"));
+        assertFalse(rsaKeys.get(0).containsKey("d"));
+        assertEquals("P-256", ecKeys.get(0).get("crv"));
+        assertFalse(ecKeys.get(0).containsKey("d"));
+        assertTrue(keyRing("HS256").publicJwks().isEmpty());
+    }
+
+    private JwtKeyRing keyRing(String algorithm) {
+        return new JwtKeyRing(algorithm, SECRET, 3600000, Duration.ofHours(24), sharedCacheStore, new ObjectMapper());
+    }
+
+    private static JwtService jwtService(JwtKeyRing keyRing) {
+        return new JwtService(keyRing, 3600000, new RequestPathMetrics(new SimpleMeterRegistry()));
+    }
+}
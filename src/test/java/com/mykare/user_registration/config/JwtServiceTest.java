@@ -0,0 +1,82 @@
+package com.mykare.user_registration.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mykare.user_registration.cache.InMemorySharedCacheStore;
+import com.mykare.user_registration.config.RequestPathMetrics;
+import com.mykare.user_registration.exception.InvalidTokenException;
+import com.mykare.user_registration.model.Role;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.time.Duration;
+import java.time.Instant;
+
+class JwtServiceTest {
+
+    private JwtService jwtService;
+
+    private Authentication authentication;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService(new JwtKeyRing("HS256", "kD2YdFrvUsmOfvu/r5OWSHudfrD7ucj2gMs1OUZFlAA=", 3600000,
+                Duration.ofHours(24), new InMemorySharedCacheStore(), new ObjectMapper()), 3600000,
+                new RequestPathMetrics(new SimpleMeterRegistry()));
+        authentication = new UsernamePasswordAuthenticationToken("test@mykare.com", null);
+    }
+
+    @Test
+    void parseToken_ShouldReturnPrincipal_WhenTokenIsValid() {
+
+        String token = jwtService.generateToken(authentication, Role.USER.toString());
+
+        JwtPrincipal principal = jwtService.parseToken(token);
+
+        assertEquals("test@mykare.com", principal.subject());
+        assertEquals("USER", principal.role());
+        assertNotNull(principal.tokenId());
+        assertNotNull(principal.issuedAt());
+        assertNotNull(principal.expiresAt());
+        assertFalse(principal.isExpired(Instant.now()));
+    }
+
+    @Test
+    void parseToken_ShouldKeepIssueTimeToTheMillisecond() {
+
+        Instant before = Instant.ofEpochMilli(System.currentTimeMillis());
+
+        JwtPrincipal principal = jwtService.parseToken(jwtService.generateToken(authentication, Role.USER.toString()));
+
+        assertFalse(principal.issuedAt().isBefore(before));
+    }
+
+    @Test
+    void generateToken_ShouldGiveEveryTokenItsOwnId() {
+
+        String first = jwtService.generateToken(authentication, Role.USER.toString());
+        String second = jwtService.generateToken(authentication, Role.USER.toString());
+
+        assertNotEquals(jwtService.parseToken(first).tokenId(), jwtService.parseToken(second).tokenId());
+    }
+
+    @Test
+    void parseToken_ShouldThrowInvalidTokenException_WhenSignatureIsTampered() {
+
+        String token = jwtService.generateToken(authentication, Role.USER.toString());
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThrows(InvalidTokenException.class, () -> jwtService.parseToken(tampered));
+        assertFalse(jwtService.validateToken(tampered));
+    }
+
+    @Test
+    void parseToken_ShouldThrowInvalidTokenException_WhenTokenIsMalformed() {
+
+        assertThrows(InvalidTokenException.class, () -> jwtService.parseToken("not-a-jwt"));
+    }
+}
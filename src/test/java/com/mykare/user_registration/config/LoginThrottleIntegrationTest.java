@@ -0,0 +1,50 @@
+package com.mykare.user_registration.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.mykare.user_registration.dto.ValidationRequestDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * The test client connects from loopback, which is a trusted proxy by default, so
+ * the X-Forwarded-For header decides which per-IP bucket a failed login counts
+ * against.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"password.bcrypt.strength=4", "login.throttle.max-failures-per-ip=3"})
+class LoginThrottleIntegrationTest {
+
+    @LocalServerPort
+    int port;
+
+    private final RestTemplate restTemplate = new RestTemplate();
+
+    @Test
+    void failedLogins_ShouldCountAgainstForwardedClientIp_WhenBehindTrustedProxy() {
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(401, login("guess" + i + "@mykare.com", "203.0.113.7"));
+        }
+
+        assertEquals(429, login("guess9@mykare.com", "203.0.113.7"));
+        assertEquals(401, login("guess9@mykare.com", "198.51.100.4"));
+    }
+
+    private int login(String email, String forwardedFor) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Forwarded-For", forwardedFor);
+        try {
+            return restTemplate.postForEntity("http://localhost:" + port + "/api/v1/validate",
+                    new HttpEntity<>(new ValidationRequestDTO(email, "wrong-password"), headers), String.class)
+                    .getStatusCode().value();
+        } catch (HttpClientErrorException e) {
+            return e.getStatusCode().value();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.mykare.user_registration.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.mykare.user_registration.exception.TooManyLoginAttemptsException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+class LoginThrottleTest {
+
+    private final LoginThrottle loginThrottle = new LoginThrottle(Duration.ofMinutes(15), 3, 5, 1024);
+
+    @Test
+    void checkAllowed_ShouldRejectEmail_AfterMaxFailuresInAnyCase() {
+
+        for (int i = 0; i < 3; i++) {
+            loginThrottle.checkAllowed("user@mykare.com", "203.0.113." + i);
+            loginThrottle.recordFailure(i == 1 ? "User@Mykare.com" : "user@mykare.com", "203.0.113." + i);
+        }
+
+        TooManyLoginAttemptsException exception = assertThrows(TooManyLoginAttemptsException.class,
+                () -> loginThrottle.checkAllowed(" USER@mykare.com", "198.51.100.1"));
+        assertTrue(exception.getRetryAfterSeconds() >= 1);
+        assertDoesNotThrow(() -> loginThrottle.checkAllowed("other@mykare.com", "198.51.100.1"));
+    }
+
+    @Test
+    void checkAllowed_ShouldRejectClientIp_WhenItSpraysManyEmails() {
+
+        for (int i = 0; i < 5; i++) {
+            loginThrottle.recordFailure("user" + i + "@mykare.com", "203.0.113.9");
+        }
+
+        assertThrows(TooManyLoginAttemptsException.class,
+                () -> loginThrottle.checkAllowed("fresh@mykare.com", "203.0.113.9"));
+        assertDoesNotThrow(() -> loginThrottle.checkAllowed("fresh@mykare.com", "203.0.113.10"));
+        assertDoesNotThrow(() -> loginThrottle.checkAllowed("fresh@mykare.com", null));
+    }
+
+    @Test
+    void checkAllowed_ShouldLetClientIn_OnceRetryAfterHasPassed() {
+
+        AtomicLong now = new AtomicLong(Duration.ofMinutes(14).toMillis());
+        LoginThrottle throttle = new LoginThrottle(Duration.ofMinutes(15), 3, 5, 1024, now::get);
+        for (int i = 0; i < 3; i++) {
+            throttle.recordFailure("user@mykare.com", null);
+        }
+
+        long retryAfter = assertThrows(TooManyLoginAttemptsException.class,
+                () -> throttle.checkAllowed("user@mykare.com", null)).getRetryAfterSeconds();
+        // the window rolls over after a minute, but the failures still weigh in for a third of the next one
+        assertEquals(60 + 300, retryAfter);
+
+        now.addAndGet(Duration.ofSeconds(retryAfter - 1).toMillis());
+        assertThrows(TooManyLoginAttemptsException.class, () -> throttle.checkAllowed("user@mykare.com", null));
+        now.addAndGet(Duration.ofSeconds(1).toMillis());
+        assertDoesNotThrow(() -> throttle.checkAllowed("user@mykare.com", null));
+    }
+}
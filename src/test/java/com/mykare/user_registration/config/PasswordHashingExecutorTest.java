@@ -0,0 +1,79 @@
+package com.mykare.user_registration.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.mykare.user_registration.exception.ServiceBusyException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+class PasswordHashingExecutorTest {
+
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @BeforeEach
+    void setUp() {
+        passwordHashingExecutor = new PasswordHashingExecutor(1, 1, false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        passwordHashingExecutor.shutdown();
+    }
+
+    @Test
+    void submit_ShouldRunTaskOffCallingThread() throws Exception {
+
+        String caller = Thread.currentThread().getName();
+
+        String worker = passwordHashingExecutor.submit(() -> Thread.currentThread().getName()).get(5, TimeUnit.SECONDS);
+
+        assertNotEquals(caller, worker);
+        assertTrue(worker.startsWith("password-hashing-"));
+    }
+
+    @Test
+    void submit_ShouldThrowServiceBusyException_WhenQueueIsFull() throws Exception {
+        assertRejectsWhenFull(passwordHashingExecutor);
+    }
+
+    @Test
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    void submit_ShouldBoundVirtualThreads_WhenVirtualModeIsEnabled() throws Exception {
+
+        PasswordHashingExecutor virtualExecutor = new PasswordHashingExecutor(1, 1, true);
+
+        assertTrue(virtualExecutor.isVirtualThreads());
+        assertRejectsWhenFull(virtualExecutor);
+    }
+
+    private static void assertRejectsWhenFull(PasswordHashingExecutor passwordHashingExecutor) throws Exception {
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Boolean> running = passwordHashingExecutor.submit(() -> {
+            started.countDown();
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> queued = passwordHashingExecutor.submit(() -> true);
+
+        assertThrows(ServiceBusyException.class, () -> passwordHashingExecutor.submit(() -> true));
+
+        release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,66 @@
+package com.mykare.user_registration.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mykare.user_registration.cache.InMemorySharedCacheStore;
+import com.mykare.user_registration.exception.InvalidTokenException;
+import com.mykare.user_registration.model.Role;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+class RequestPathMetricsTest {
+
+    private SimpleMeterRegistry registry;
+
+    private RequestPathMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        metrics = new RequestPathMetrics(registry);
+    }
+
+    @Test
+    void timeUserOperation_ShouldTagOutcome_WhenOperationSucceedsOrThrows() {
+
+        assertEquals("ok", metrics.timeUserOperation(RequestPathMetrics.UserOperation.REGISTER, () -> "ok"));
+        assertThrows(IllegalStateException.class, () -> metrics.timeUserOperation(
+                RequestPathMetrics.UserOperation.REGISTER, () -> {
+                    throw new IllegalStateException("boom");
+                }));
+
+        assertEquals(1, registry.get("user.service").tags("operation", "register", "outcome", "success").timer().count());
+        assertEquals(1, registry.get("user.service").tags("operation", "register", "outcome", "failure").timer().count());
+        assertEquals(0, registry.get("user.service").tags("operation", "list", "outcome", "success").timer().count());
+    }
+
+    @Test
+    void recordFilterOutcome_ShouldCountEachOutcomeSeparately() {
+
+        metrics.recordFilterOutcome(RequestPathMetrics.FilterOutcome.VALID, System.nanoTime());
+        metrics.recordFilterOutcome(RequestPathMetrics.FilterOutcome.ABSENT, System.nanoTime());
+        metrics.recordFilterOutcome(RequestPathMetrics.FilterOutcome.ABSENT, System.nanoTime());
+
+        assertEquals(1, registry.get("jwt.filter").tag("outcome", "valid").timer().count());
+        assertEquals(2, registry.get("jwt.filter").tag("outcome", "absent").timer().count());
+        assertEquals(0, registry.get("jwt.filter").tag("outcome", "invalid").timer().count());
+    }
+
+    @Test
+    void jwtService_ShouldTimeSigningAndVerificationByAlgorithm() {
+
+        JwtService jwtService = new JwtService(new JwtKeyRing("HS256", "kD2YdFrvUsmOfvu/r5OWSHudfrD7ucj2gMs1OUZFlAA=",
+                3600000, Duration.ofHours(24), new InMemorySharedCacheStore(), new ObjectMapper()), 3600000, metrics);
+
+        jwtService.parseToken(jwtService.generateToken("test@mykare.com", Role.USER.toString()));
+        assertThrows(InvalidTokenException.class, () -> jwtService.parseToken("not-a-token"));
+
+        assertEquals(1, registry.get("jwt.sign").tags("algorithm", "HS256", "outcome", "success").timer().count());
+        assertEquals(1, registry.get("jwt.verify").tags("algorithm", "HS256", "outcome", "success").timer().count());
+        assertEquals(1, registry.get("jwt.verify").tags("algorithm", "HS256", "outcome", "failure").timer().count());
+    }
+}
@@ -0,0 +1,92 @@
+package com.mykare.user_registration.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.mykare.user_registration.cache.InMemorySharedCacheStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+class TokenRevocationListTest {
+
+    private InMemorySharedCacheStore sharedCacheStore;
+
+    private TokenRevocationList tokenRevocationList;
+
+    @BeforeEach
+    void setUp() {
+        sharedCacheStore = new InMemorySharedCacheStore();
+        tokenRevocationList = new TokenRevocationList(sharedCacheStore, 3_600_000);
+    }
+
+    @Test
+    void isRevoked_ShouldRejectOnlyRevokedTokenIds() {
+
+        JwtPrincipal revoked = principal("user@mykare.com", "jti-1", Instant.now());
+        JwtPrincipal other = principal("user@mykare.com", "jti-2", Instant.now());
+
+        tokenRevocationList.revoke(revoked);
+
+        assertTrue(tokenRevocationList.isRevoked(revoked));
+        assertFalse(tokenRevocationList.isRevoked(other));
+    }
+
+    @Test
+    void revokeAllFor_ShouldRejectTokensIssuedBeforeTheCall_InAnyEmailCase() {
+
+        JwtPrincipal old = principal("User@Mykare.com", "jti-1", Instant.now().minusSeconds(60));
+        JwtPrincipal later = principal("user@mykare.com", "jti-2", Instant.now().plusSeconds(5));
+        JwtPrincipal otherUser = principal("other@mykare.com", "jti-3", Instant.now().minusSeconds(60));
+
+        tokenRevocationList.revokeAllFor("user@mykare.com");
+
+        assertTrue(tokenRevocationList.isRevoked(old));
+        assertFalse(tokenRevocationList.isRevoked(later));
+        assertFalse(tokenRevocationList.isRevoked(otherUser));
+    }
+
+    @Test
+    void revokeAllFor_ShouldAcceptTokenIssuedRightAfterTheCall() {
+
+        long before = System.currentTimeMillis();
+        tokenRevocationList.revokeAllFor("user@mykare.com");
+        long after = System.currentTimeMillis();
+
+        assertFalse(tokenRevocationList.isRevoked(principal("user@mykare.com", "jti-1", Instant.ofEpochMilli(after + 1))));
+        assertTrue(tokenRevocationList.isRevoked(principal("user@mykare.com", "jti-2", Instant.ofEpochMilli(before - 1))));
+    }
+
+    @Test
+    void revocations_ShouldReachOtherNodesSharingTheStore() {
+
+        TokenRevocationList otherNode = new TokenRevocationList(sharedCacheStore, 3_600_000);
+        JwtPrincipal token = principal("user@mykare.com", "jti-1", Instant.now());
+
+        tokenRevocationList.revoke(token);
+        tokenRevocationList.revokeAllFor("other@mykare.com");
+
+        assertTrue(otherNode.isRevoked(token));
+        assertTrue(otherNode.isRevoked(principal("other@mykare.com", "jti-2", Instant.now().minusSeconds(1))));
+    }
+
+    @Test
+    void purgeExpired_ShouldKeepLiveEntries_AndExpiredTokensAreNeverStored() {
+
+        TokenRevocationList shortLived = new TokenRevocationList(sharedCacheStore, 60_000);
+        shortLived.revoke(new JwtPrincipal("user@mykare.com", "USER", "jti-1", Instant.now().minusSeconds(10),
+                Instant.now().plusSeconds(3600)));
+        shortLived.revoke(new JwtPrincipal("user@mykare.com", "USER", "jti-2", Instant.now().minusSeconds(10),
+                Instant.now().minusSeconds(1)));
+        shortLived.revokeAllFor("user@mykare.com");
+
+        shortLived.purgeExpired();
+
+        assertEquals(1, shortLived.revokedTokenCount());
+        assertEquals(1, shortLived.revokedSubjectCount());
+    }
+
+    private static JwtPrincipal principal(String subject, String tokenId, Instant issuedAt) {
+        return new JwtPrincipal(subject, "USER", tokenId, issuedAt, Instant.now().plusSeconds(3600));
+    }
+}
@@ -0,0 +1,63 @@
+package com.mykare.user_registration.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.mykare.user_registration.exception.InvalidTokenException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+class VerifiedTokenCacheTest {
+
+    private JwtService jwtService;
+
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = mock(JwtService.class);
+        verifiedTokenCache = new VerifiedTokenCache(jwtService, 100);
+    }
+
+    @Test
+    void verify_ShouldSkipParsing_WhenTokenIsCached() {
+
+        JwtPrincipal principal = new JwtPrincipal("test@mykare.com", "USER", "jti-1", Instant.now(), Instant.now().plus(1, ChronoUnit.HOURS));
+        when(jwtService.parseToken("token")).thenReturn(principal);
+
+        assertEquals(principal, verifiedTokenCache.verify("token"));
+        assertEquals(principal, verifiedTokenCache.verify("token"));
+
+        verify(jwtService, times(1)).parseToken("token");
+        assertEquals(1, verifiedTokenCache.stats().hitCount());
+        assertEquals(1, verifiedTokenCache.stats().missCount());
+    }
+
+    @Test
+    void verify_ShouldNotCache_WhenTokenIsInvalid() {
+
+        when(jwtService.parseToken("bad")).thenThrow(new InvalidTokenException("Invalid token"));
+
+        assertThrows(InvalidTokenException.class, () -> verifiedTokenCache.verify("bad"));
+        assertThrows(InvalidTokenException.class, () -> verifiedTokenCache.verify("bad"));
+
+        verify(jwtService, times(2)).parseToken("bad");
+        assertEquals(0, verifiedTokenCache.estimatedSize());
+    }
+
+    @Test
+    void verify_ShouldReparse_WhenCachedTokenHasExpired() {
+
+        JwtPrincipal expired = new JwtPrincipal("test@mykare.com", "USER", "jti-1", Instant.now(), Instant.now().minusSeconds(1));
+        when(jwtService.parseToken("token"))
+                .thenReturn(expired)
+                .thenThrow(new InvalidTokenException("Invalid token"));
+
+        verifiedTokenCache.verify("token");
+
+        assertThrows(InvalidTokenException.class, () -> verifiedTokenCache.verify("token"));
+    }
+}
@@ -0,0 +1,114 @@
+package com.mykare.user_registration.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Latency histogram, error and shed counts and wall-clock window of one endpoint
+ * during a run. The histogram holds one end-to-end latency per request, including
+ * any attempts shed with a 503 by the concurrency limiter and the Retry-After
+ * waits between them. The shed attempts are also counted on their own, with the
+ * latency of each 503 in a second histogram, since a shed should be fast.
+ */
+public final class EndpointStats {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(2);
+
+    private final String endpoint;
+    private final Histogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3);
+    private final Histogram shedHistogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3);
+    private final AtomicInteger errors = new AtomicInteger();
+    private final AtomicInteger shed = new AtomicInteger();
+    private volatile long startNanos;
+    private volatile long endNanos;
+
+    EndpointStats(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    void start() {
+        startNanos = System.nanoTime();
+    }
+
+    void finish() {
+        endNanos = System.nanoTime();
+    }
+
+    void record(long latencyNanos, boolean error) {
+        histogram.recordValue(Math.min(latencyNanos, HIGHEST_TRACKABLE_NANOS));
+        if (error) {
+            errors.incrementAndGet();
+        }
+    }
+
+    void recordShed(long latencyNanos) {
+        shedHistogram.recordValue(Math.min(latencyNanos, HIGHEST_TRACKABLE_NANOS));
+        shed.incrementAndGet();
+    }
+
+    public String endpoint() {
+        return endpoint;
+    }
+
+    public long requests() {
+        return histogram.getTotalCount();
+    }
+
+    public int errors() {
+        return errors.get();
+    }
+
+    public int shed() {
+        return shed.get();
+    }
+
+    public double shedRatio() {
+        long attempts = requests() + shed();
+        return attempts == 0 ? 0 : (double) shed() / attempts;
+    }
+
+    public double throughputPerSecond() {
+        return requests() * 1_000_000_000d / Math.max(endNanos - startNanos, 1);
+    }
+
+    public double percentileMillis(double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1_000_000d;
+    }
+
+    /**
+     * Latency of the 503 responses themselves, without the Retry-After wait.
+     */
+    public double shedPercentileMillis(double percentile) {
+        return shedHistogram.getValueAtPercentile(percentile) / 1_000_000d;
+    }
+
+    public Map<String, Object> toReport() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("requests", requests());
+        report.put("errors", errors());
+        report.put("shed", shed());
+        report.put("throughputPerSecond", round(throughputPerSecond()));
+        report.put("p50Millis", round(percentileMillis(50)));
+        report.put("p99Millis", round(percentileMillis(99)));
+        report.put("p999Millis", round(percentileMillis(99.9)));
+        report.put("maxMillis", round(histogram.getMaxValue() / 1_000_000d));
+        report.put("shedP99Millis", round(shedPercentileMillis(99)));
+        return report;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-19s requests=%d errors=%d shed=%d throughput=%.1f/s p50=%.1fms p99=%.1fms p999=%.1fms"
+                        + " shed-p99=%.1fms", endpoint, requests(), errors(), shed(), throughputPerSecond(),
+                percentileMillis(50), percentileMillis(99), percentileMillis(99.9), shedPercentileMillis(99));
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10) / 10d;
+    }
+}
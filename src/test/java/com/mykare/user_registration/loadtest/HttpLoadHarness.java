@@ -0,0 +1,93 @@
+package com.mykare.user_registration.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Runs several {@link Workload}s at the same time against a live server and
+ * records per-endpoint latency in HdrHistograms. Like {@link LoadDriver} it is
+ * closed-loop, so latency includes time spent queueing on the server. A 503 that
+ * the workload does not expect counts as shed rather than as an error, and the
+ * client waits for Retry-After and sends the same request again, as a
+ * well-behaved client would, so every workload completes all of its requests.
+ * Latency is measured end to end, from the first attempt to the final response,
+ * so shedding shows up in the percentiles as the backoff it costs the client.
+ */
+public final class HttpLoadHarness {
+
+    private HttpLoadHarness() {
+    }
+
+    public static Map<String, EndpointStats> run(List<Workload> workloads) {
+        int clients = workloads.stream().mapToInt(Workload::concurrency).sum();
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(Math.min(clients, 32));
+        HttpClient client = HttpClient.newBuilder()
+                .executor(clientExecutor)
+                .connectTimeout(Duration.ofSeconds(10))
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        try {
+            Map<String, EndpointStats> stats = new LinkedHashMap<>();
+            CompletableFuture<?>[] running = new CompletableFuture<?>[workloads.size()];
+            for (int i = 0; i < workloads.size(); i++) {
+                Workload workload = workloads.get(i);
+                EndpointStats endpointStats = new EndpointStats(workload.endpoint());
+                stats.put(workload.endpoint(), endpointStats);
+                running[i] = start(client, workload, endpointStats);
+            }
+            CompletableFuture.allOf(running).join();
+            return stats;
+        } finally {
+            clientExecutor.shutdownNow();
+        }
+    }
+
+    private static CompletableFuture<Void> start(HttpClient client, Workload workload, EndpointStats stats) {
+        AtomicInteger next = new AtomicInteger();
+        stats.start();
+        CompletableFuture<?>[] users = new CompletableFuture<?>[workload.concurrency()];
+        for (int i = 0; i < users.length; i++) {
+            users[i] = loop(client, workload, next, stats);
+        }
+        return CompletableFuture.allOf(users).whenComplete((ignored, ex) -> stats.finish());
+    }
+
+    private static CompletableFuture<Void> loop(HttpClient client, Workload workload, AtomicInteger next,
+                                                EndpointStats stats) {
+        int sequence = next.getAndIncrement();
+        if (sequence >= workload.requests()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return attempt(client, workload, sequence, System.nanoTime(), stats)
+                .thenCompose(ignored -> loop(client, workload, next, stats));
+    }
+
+    private static CompletableFuture<Void> attempt(HttpClient client, Workload workload, int sequence,
+                                                   long firstSent, EndpointStats stats) {
+        long sent = System.nanoTime();
+        return client.sendAsync(workload.request().apply(sequence), HttpResponse.BodyHandlers.discarding())
+                .handle((response, ex) -> {
+                    if (ex == null && response.statusCode() == 503 && !workload.expectedStatuses().contains(503)) {
+                        stats.recordShed(System.nanoTime() - sent);
+                        long retryAfter = response.headers().firstValueAsLong("Retry-After").orElse(1);
+                        return CompletableFuture.runAsync(() -> {
+                        }, CompletableFuture.delayedExecutor(retryAfter, TimeUnit.SECONDS))
+                                .thenCompose(ignored -> attempt(client, workload, sequence, firstSent, stats));
+                    }
+                    stats.record(System.nanoTime() - firstSent,
+                            ex != null || !workload.expectedStatuses().contains(response.statusCode()));
+                    return CompletableFuture.<Void>completedFuture(null);
+                })
+                .thenCompose(Function.identity());
+    }
+}
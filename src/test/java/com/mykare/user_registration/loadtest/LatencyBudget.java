@@ -0,0 +1,105 @@
+package com.mykare.user_registration.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Latency, throughput and shedding limits for one endpoint, read from
+ * {@code loadtest-budgets.properties} on the test classpath. Any value can be
+ * overridden with a system property of the same name, e.g.
+ * {@code -Dloadtest.budget.login.shed-p99=50}; a limit that is not set is not
+ * checked. With {@code baseline} and {@code max-slowdown} the endpoint's p50, p99
+ * and p999 may be at most that factor above the baseline endpoint's from the same
+ * run, and its throughput at most that factor below.
+ */
+public record LatencyBudget(String endpoint, double p50Millis, double p99Millis, double p999Millis,
+                            double minThroughputPerSecond, double maxShedRatio, double shedP99Millis,
+                            String baseline, double maxSlowdown) {
+
+    private static final Properties DEFAULTS = loadDefaults();
+
+    public static LatencyBudget forEndpoint(String endpoint) {
+        return new LatencyBudget(endpoint,
+                value(endpoint, "p50", Double.POSITIVE_INFINITY),
+                value(endpoint, "p99", Double.POSITIVE_INFINITY),
+                value(endpoint, "p999", Double.POSITIVE_INFINITY),
+                value(endpoint, "min-throughput", 0),
+                value(endpoint, "max-shed-ratio", 1),
+                value(endpoint, "shed-p99", Double.POSITIVE_INFINITY),
+                property(endpoint, "baseline"),
+                value(endpoint, "max-slowdown", Double.POSITIVE_INFINITY));
+    }
+
+    /**
+     * Describes every limit the stats exceed; empty when the endpoint is within
+     * budget. {@code run} holds the other endpoints of the run, to look up the baseline.
+     */
+    public List<String> violations(EndpointStats stats, Map<String, EndpointStats> run) {
+        List<String> violations = new ArrayList<>();
+        if (stats.errors() > 0) {
+            violations.add(String.format("%s: %d errors", endpoint, stats.errors()));
+        }
+        if (stats.shedRatio() > maxShedRatio) {
+            violations.add(String.format("%s: %.1f%% shed, over %.1f%%", endpoint, stats.shedRatio() * 100,
+                    maxShedRatio * 100));
+        }
+        check(violations, "p50", stats.percentileMillis(50), p50Millis);
+        check(violations, "p99", stats.percentileMillis(99), p99Millis);
+        check(violations, "p999", stats.percentileMillis(99.9), p999Millis);
+        if (stats.shed() > 0) {
+            check(violations, "shed-p99", stats.shedPercentileMillis(99), shedP99Millis);
+        }
+        if (stats.throughputPerSecond() < minThroughputPerSecond) {
+            violations.add(String.format("%s: throughput %.1f/s below %.1f/s", endpoint,
+                    stats.throughputPerSecond(), minThroughputPerSecond));
+        }
+        if (baseline != null) {
+            EndpointStats base = run.get(baseline);
+            if (base == null) {
+                throw new IllegalStateException("Baseline " + baseline + " of " + endpoint + " did not run");
+            }
+            check(violations, "p50", stats.percentileMillis(50), base.percentileMillis(50) * maxSlowdown);
+            check(violations, "p99", stats.percentileMillis(99), base.percentileMillis(99) * maxSlowdown);
+            check(violations, "p999", stats.percentileMillis(99.9), base.percentileMillis(99.9) * maxSlowdown);
+            if (stats.throughputPerSecond() < base.throughputPerSecond() / maxSlowdown) {
+                violations.add(String.format("%s: throughput %.1f/s below %.1f/s (%s / %.1f)", endpoint,
+                        stats.throughputPerSecond(), base.throughputPerSecond() / maxSlowdown, baseline,
+                        maxSlowdown));
+            }
+        }
+        return violations;
+    }
+
+    private void check(List<String> violations, String metric, double actual, double limit) {
+        if (actual > limit) {
+            violations.add(String.format("%s: %s %.1fms over budget %.1fms", endpoint, metric, actual, limit));
+        }
+    }
+
+    private static double value(String endpoint, String metric, double unset) {
+        String value = property(endpoint, metric);
+        return value == null ? unset : Double.parseDouble(value);
+    }
+
+    private static String property(String endpoint, String metric) {
+        String key = "loadtest.budget." + endpoint + "." + metric;
+        return System.getProperty(key, DEFAULTS.getProperty(key));
+    }
+
+    private static Properties loadDefaults() {
+        Properties properties = new Properties();
+        try (InputStream in = LatencyBudget.class.getResourceAsStream("/loadtest-budgets.properties")) {
+            if (in != null) {
+                properties.load(in);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return properties;
+    }
+}
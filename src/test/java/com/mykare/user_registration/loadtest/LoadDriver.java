@@ -0,0 +1,95 @@
+package com.mykare.user_registration.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Closed-loop HTTP load driver: {@code concurrency} virtual users each send
+ * {@code requestsPerUser} requests back to back, so at most {@code concurrency}
+ * requests are in flight at any time.
+ */
+public final class LoadDriver {
+
+    private LoadDriver() {
+    }
+
+    public static Result run(URI uri, String authorization, int concurrency, int requestsPerUser) {
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(Math.min(concurrency, 32));
+        HttpClient client = HttpClient.newBuilder()
+                .executor(clientExecutor)
+                .connectTimeout(Duration.ofSeconds(10))
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("Authorization", authorization)
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+
+        int total = concurrency * requestsPerUser;
+        AtomicLongArray latencies = new AtomicLongArray(total);
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+
+        long start = System.nanoTime();
+        CompletableFuture<?>[] users = new CompletableFuture<?>[concurrency];
+        for (int i = 0; i < concurrency; i++) {
+            users[i] = loop(client, request, requestsPerUser, latencies, next, errors);
+        }
+        CompletableFuture.allOf(users).join();
+        long elapsed = System.nanoTime() - start;
+        clientExecutor.shutdownNow();
+
+        long[] sorted = new long[total];
+        for (int i = 0; i < total; i++) {
+            sorted[i] = latencies.get(i);
+        }
+        Arrays.sort(sorted);
+        return new Result(total, errors.get(), elapsed, sorted);
+    }
+
+    private static CompletableFuture<Void> loop(HttpClient client, HttpRequest request, int remaining,
+                                                AtomicLongArray latencies, AtomicInteger next, AtomicInteger errors) {
+        if (remaining == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        long sent = System.nanoTime();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, ex) -> {
+                    latencies.set(next.getAndIncrement(), System.nanoTime() - sent);
+                    if (ex != null || response.statusCode() != 200) {
+                        errors.incrementAndGet();
+                    }
+                    return null;
+                })
+                .thenCompose(ignored -> loop(client, request, remaining - 1, latencies, next, errors));
+    }
+
+    public record Result(int requests, int errors, long elapsedNanos, long[] sortedLatencyNanos) {
+
+        public double throughputPerSecond() {
+            return requests * 1_000_000_000d / elapsedNanos;
+        }
+
+        public double percentileMillis(double percentile) {
+            int index = (int) Math.ceil(percentile / 100d * sortedLatencyNanos.length) - 1;
+            return sortedLatencyNanos[Math.max(index, 0)] / 1_000_000d;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("requests=%d errors=%d throughput=%.1f/s p50=%.1fms p99=%.1fms max=%.1fms",
+                    requests, errors, throughputPerSecond(), percentileMillis(50), percentileMillis(99),
+                    percentileMillis(100));
+        }
+    }
+}
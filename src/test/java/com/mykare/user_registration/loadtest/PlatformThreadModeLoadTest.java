@@ -0,0 +1,19 @@
+package com.mykare.user_registration.loadtest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.context.TestPropertySource;
+
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+@TestPropertySource(properties = "spring.threads.virtual.enabled=false")
+class PlatformThreadModeLoadTest extends ThreadModeLoadTest {
+
+    @Test
+    void blockingRequestsUnderHighConcurrency() {
+        LoadDriver.Result result = runLoad();
+
+        assertTrue(result.throughputPerSecond() <= platformThroughputCeiling() * 1.1);
+    }
+}
@@ -0,0 +1,86 @@
+package com.mykare.user_registration.loadtest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.mykare.user_registration.config.JwtService;
+import com.mykare.user_registration.model.Role;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.net.URI;
+
+/**
+ * Compares how many concurrent connections the app can serve in platform- and
+ * virtual-thread mode. Requests hit a fixture endpoint that blocks for
+ * {@link #BLOCKING_MILLIS} ms, standing in for a slow JDBC round trip, while
+ * Tomcat is capped at {@link #TOMCAT_MAX_THREADS} platform threads. The
+ * concurrency limiter is off so that the thread mode alone decides throughput.
+ * <p>
+ * Run with {@code mvn test -Dloadtest=true -Dtest='*ThreadModeLoadTest'} on Java 21.
+ */
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"server.tomcat.threads.max=" + ThreadModeLoadTest.TOMCAT_MAX_THREADS,
+                "concurrency.limit.enabled=false"})
+@Import(ThreadModeLoadTest.BlockingEndpoint.class)
+abstract class ThreadModeLoadTest {
+
+    static final int TOMCAT_MAX_THREADS = 8;
+
+    static final long BLOCKING_MILLIS = 200;
+
+    static final int CONCURRENCY = 100;
+
+    static final int REQUESTS_PER_USER = 5;
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    JwtService jwtService;
+
+    /**
+     * Upper bound on throughput when every request holds a platform thread for
+     * the whole blocking call.
+     */
+    static double platformThroughputCeiling() {
+        return TOMCAT_MAX_THREADS * 1000d / BLOCKING_MILLIS;
+    }
+
+    LoadDriver.Result runLoad() {
+        String token = jwtService.generateToken(
+                new UsernamePasswordAuthenticationToken("loadtest@mykare.com", null), Role.USER.toString());
+        URI uri = URI.create("http://localhost:" + port + "/api/v1/loadtest/blocking");
+
+        LoadDriver.run(uri, "Bearer " + token, TOMCAT_MAX_THREADS, 5); // warm-up
+        LoadDriver.Result result = LoadDriver.run(uri, "Bearer " + token, CONCURRENCY, REQUESTS_PER_USER);
+        log.info("{}: {} (platform ceiling {}/s)", getClass().getSimpleName(), result,
+                String.format("%.0f", platformThroughputCeiling()));
+
+        assertEquals(0, result.errors());
+        return result;
+    }
+
+    @TestConfiguration
+    static class BlockingEndpoint {
+
+        @Bean
+        RouterFunction<ServerResponse> blockingRoute() {
+            return RouterFunctions.route()
+                    .GET("/api/v1/loadtest/blocking", request -> {
+                        Thread.sleep(BLOCKING_MILLIS);
+                        return ServerResponse.ok().body("ok");
+                    })
+                    .build();
+        }
+    }
+}
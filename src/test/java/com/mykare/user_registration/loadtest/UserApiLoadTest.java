@@ -0,0 +1,155 @@
+package com.mykare.user_registration.loadtest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mykare.user_registration.config.JwtService;
+import com.mykare.user_registration.dto.UserRequestDTO;
+import com.mykare.user_registration.dto.ValidationRequestDTO;
+import com.mykare.user_registration.model.Role;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * End-to-end load test of the public API on a random port. A burst of
+ * registrations seeds the database, then authenticated paging of
+ * {@code /api/v1/users} runs on its own, after a warm-up, to measure the unloaded
+ * baseline. Finally a login storm, the same paging mix and admin deletes run side
+ * by side. Each endpoint's p50/p99/p999, throughput and share of requests shed by
+ * the concurrency limiter are checked against {@link LatencyBudget}s, the paging
+ * during the storm against the unloaded baseline, and written to
+ * {@code target/loadtest-report.json}.
+ * <p>
+ * Run with {@code mvn test -Dloadtest=true -Dtest=UserApiLoadTest}. Request counts
+ * scale with {@code -Dloadtest.users=N} and budgets are overridden with e.g.
+ * {@code -Dloadtest.budget.users-page.p99=50}. BCrypt runs at strength 4 so the
+ * numbers reflect the request path rather than hashing cost, which
+ * {@code PasswordEncoderBenchmark} covers; pass {@code -Dloadtest.bcrypt.strength=10}
+ * to load-test production hashing. To load-test the persistence profile, add
+ * {@code -Dspring.profiles.active=prod -Dloadtest.datasource.url=jdbc:h2:file:./target/loadtest-db}.
+ */
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.datasource.url=${loadtest.datasource.url:jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1}",
+                "password.bcrypt.strength=${loadtest.bcrypt.strength:4}"})
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class UserApiLoadTest {
+
+    static final int USERS = Integer.getInteger("loadtest.users", 200);
+
+    static final String PASSWORD = "loadtest-password";
+
+    static final Set<Integer> OK = Set.of(200);
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    JwtService jwtService;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${admin.email}")
+    String adminEmail;
+
+    @Test
+    void mixedWorkload_ShouldStayWithinLatencyBudgets() throws IOException {
+
+        Map<String, EndpointStats> stats = new LinkedHashMap<>(HttpLoadHarness.run(List.of(
+                new Workload("register", 20, USERS, i -> post("/api/v1/register", null,
+                        new UserRequestDTO("Load " + i, email(i), i % 2 == 0 ? "male" : "female", PASSWORD)),
+                        Set.of(201)))));
+
+        String userToken = bearer("loadtest-reader@mykare.com", Role.USER);
+        String adminToken = bearer(adminEmail, Role.ADMIN);
+        int half = USERS / 2;
+
+        // the paging mix on its own, as the baseline the storm is compared against; the first run
+        // only warms up the JIT and the connection pool and is not reported
+        Workload paging = new Workload("users-page-unloaded", 50, USERS * 20, i -> get(
+                "/api/v1/users?page=" + i % 10 + "&size=20", userToken), OK);
+        HttpLoadHarness.run(List.of(paging));
+        stats.putAll(HttpLoadHarness.run(List.of(paging)));
+
+        // logins target the first half of the seeded users, deletes the second half
+        stats.putAll(HttpLoadHarness.run(List.of(
+                new Workload("login", 20, USERS, i -> post("/api/v1/validate", null,
+                        new ValidationRequestDTO(email(i % half), PASSWORD)), OK),
+                new Workload("users-page", 50, USERS * 20, i -> get(
+                        "/api/v1/users?page=" + i % 10 + "&size=20", userToken), OK),
+                new Workload("admin-delete", 5, USERS - half, i -> request(
+                        "/api/v1/users/" + email(half + i), adminToken).DELETE().build(), OK))));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        List<String> violations = new ArrayList<>();
+        stats.values().forEach(endpoint -> {
+            log.info("{}", endpoint);
+            report.put(endpoint.endpoint(), endpoint.toReport());
+            violations.addAll(LatencyBudget.forEndpoint(endpoint.endpoint()).violations(endpoint, stats));
+        });
+        Map<String, Object> limits = new LinkedHashMap<>();
+        meterRegistry.find("concurrency.limit").gauges()
+                .forEach(gauge -> limits.put(gauge.getId().getTag("group"), (int) gauge.value()));
+        log.info("Concurrency limits after the run: {}", limits);
+        report.put("concurrencyLimits", limits);
+        Path reportFile = Path.of("target", "loadtest-report.json");
+        Files.createDirectories(reportFile.getParent());
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(reportFile.toFile(), report);
+
+        assertTrue(violations.isEmpty(), () -> "Load-test budgets exceeded:\n" + String.join("\n", violations));
+    }
+
+    private static String email(int i) {
+        return "load" + i + "@mykare.com";
+    }
+
+    private String bearer(String subject, Role role) {
+        return "Bearer " + jwtService.generateToken(new UsernamePasswordAuthenticationToken(subject, null),
+                role.toString());
+    }
+
+    private HttpRequest get(String path, String authorization) {
+        return request(path, authorization).GET().build();
+    }
+
+    private HttpRequest post(String path, String authorization, Object body) {
+        try {
+            return request(path, authorization)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private HttpRequest.Builder request(String path, String authorization) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path));
+        if (authorization != null) {
+            builder.header("Authorization", authorization);
+        }
+        return builder;
+    }
+}
@@ -0,0 +1,22 @@
+package com.mykare.user_registration.loadtest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.test.context.TestPropertySource;
+
+@EnabledForJreRange(min = JRE.JAVA_21)
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+@TestPropertySource(properties = "spring.threads.virtual.enabled=true")
+class VirtualThreadModeLoadTest extends ThreadModeLoadTest {
+
+    @Test
+    void blockingRequestsUnderHighConcurrency() {
+        LoadDriver.Result result = runLoad();
+
+        assertTrue(result.throughputPerSecond() > platformThroughputCeiling() * 2);
+    }
+}
@@ -0,0 +1,14 @@
+package com.mykare.user_registration.loadtest;
+
+import java.net.http.HttpRequest;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * One endpoint's share of a load mix: {@code requests} requests built by
+ * {@code request} from their sequence number, sent by {@code concurrency} closed-loop
+ * clients. Responses with a status outside {@code expectedStatuses} count as errors.
+ */
+public record Workload(String endpoint, int concurrency, int requests, IntFunction<HttpRequest> request,
+                       Set<Integer> expectedStatuses) {
+}
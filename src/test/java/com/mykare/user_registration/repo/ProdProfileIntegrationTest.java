@@ -0,0 +1,53 @@
+package com.mykare.user_registration.repo;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.mykare.user_registration.UserRegistrationApplication;
+import com.mykare.user_registration.dto.UserRequestDTO;
+import com.mykare.user_registration.service.UserService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Path;
+
+/**
+ * Boots the {@code prod} profile twice against the same H2 file: users registered
+ * before a restart must still be there afterwards, and the flyway migrations must
+ * be applied exactly once.
+ */
+class ProdProfileIntegrationTest {
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    void restart_ShouldKeepRegisteredUsers() {
+
+        try (ConfigurableApplicationContext first = start()) {
+            first.getBean(UserService.class)
+                    .registerUser(new UserRequestDTO("Durable", "durable@mykare.com", "female", "password1"));
+
+            HikariDataSource dataSource = first.getBean(HikariDataSource.class);
+            assertEquals(10, dataSource.getMaximumPoolSize());
+            assertFalse(dataSource.isAutoCommit());
+        }
+
+        try (ConfigurableApplicationContext second = start()) {
+            assertTrue(second.getBean(UserRepository.class).findByEmail("Durable@mykare.com").isPresent());
+            assertEquals(1, second.getBean(JdbcTemplate.class)
+                    .queryForObject("select count(*) from \"flyway_schema_history\" where \"version\" = '1'", Integer.class));
+        }
+    }
+
+    private ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(UserRegistrationApplication.class)
+                .profiles("prod")
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:file:" + dataDir.resolve("users") + ";QUERY_CACHE_SIZE=64",
+                        "--password.bcrypt.strength=4");
+    }
+}
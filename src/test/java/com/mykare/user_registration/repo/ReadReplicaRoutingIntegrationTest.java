@@ -0,0 +1,130 @@
+package com.mykare.user_registration.repo;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.mykare.user_registration.UserRegistrationApplication;
+import com.mykare.user_registration.dto.BulkDeleteRequestDTO;
+import com.mykare.user_registration.dto.BulkDeleteResponseDTO;
+import com.mykare.user_registration.dto.UserRequestDTO;
+import com.mykare.user_registration.dto.UserResponseDTO;
+import com.mykare.user_registration.exception.UserNotFoundException;
+import com.mykare.user_registration.service.CustomUserDetailsService;
+import com.mykare.user_registration.service.UserBulkService;
+import com.mykare.user_registration.service.UserService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Two in-memory H2 databases stand in for a primary and a replica that never
+ * catches up: both get the schema, but rows written through the application land
+ * on the primary only. Where a read is served from therefore shows which
+ * database it was routed to.
+ */
+class ReadReplicaRoutingIntegrationTest {
+
+    private static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1";
+    private static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+
+    private static ConfigurableApplicationContext context;
+    private static JdbcTemplate primary;
+    private static JdbcTemplate replica;
+
+    @BeforeAll
+    static void start() {
+        Flyway.configure().dataSource(REPLICA_URL, "sa", "").load().migrate();
+        context = new SpringApplicationBuilder(UserRegistrationApplication.class)
+                .run("--server.port=0",
+                        "--spring.datasource.url=" + PRIMARY_URL,
+                        "--datasource.replica.url=" + REPLICA_URL,
+                        "--password.bcrypt.strength=4");
+        primary = new JdbcTemplate(context.getBean("primaryDataSource", DataSource.class));
+        replica = new JdbcTemplate(context.getBean("replicaDataSource", DataSource.class));
+    }
+
+    @AfterAll
+    static void stop() {
+        context.close();
+    }
+
+    @Test
+    void listingUsers_ShouldReadFromReplica() {
+
+        insertUser(replica, 1_000_001L, "only@replica.com");
+
+        List<String> emails = context.getBean(UserService.class).getAllUsers(0, 100).stream()
+                .map(UserResponseDTO::email)
+                .toList();
+
+        assertTrue(emails.contains("only@replica.com"));
+        assertFalse(emails.contains("admin@example.com"));
+    }
+
+    @Test
+    void loginLookup_ShouldReadFromPrimary_WhenUserWasJustRegistered() {
+
+        context.getBean(UserService.class)
+                .registerUser(new UserRequestDTO("Fresh", "fresh@mykare.com", "male", "password1"));
+
+        assertEquals(0, countUsers(replica, "fresh@mykare.com"));
+        assertEquals("fresh@mykare.com", context.getBean(CustomUserDetailsService.class)
+                .loadUserByUsername("Fresh@mykare.com").getUsername());
+    }
+
+    @Test
+    void loginLookup_ShouldReadFromReplica_WhenUserWasNotRecentlyWritten() {
+
+        insertUser(primary, 1_000_002L, "lagging@mykare.com");
+        CustomUserDetailsService users = context.getBean(CustomUserDetailsService.class);
+
+        assertThrows(UserNotFoundException.class, () -> users.loadUserByUsername("lagging@mykare.com"));
+
+        insertUser(replica, 1_000_002L, "lagging@mykare.com");
+        assertEquals("lagging@mykare.com", users.loadUserByUsername("lagging@mykare.com").getUsername());
+    }
+
+    @Test
+    void deleteUser_ShouldLookUpUserOnPrimary() {
+
+        UserService userService = context.getBean(UserService.class);
+        userService.registerUser(new UserRequestDTO("Gone", "gone@mykare.com", "female", "password1"));
+
+        userService.deleteUserByEmail("gone@mykare.com");
+
+        assertEquals(0, countUsers(primary, "gone@mykare.com"));
+    }
+
+    @Test
+    void bulkDeleteByFilter_ShouldFindUsersOnPrimary_WhenReplicaLags() {
+
+        insertUser(primary, 1_000_003L, "stale@mykare.com", Timestamp.from(Instant.parse("2001-01-01T00:00:00Z")));
+
+        BulkDeleteResponseDTO response = context.getBean(UserBulkService.class)
+                .deleteUsers(new BulkDeleteRequestDTO(null, null, null, Instant.parse("2002-01-01T00:00:00Z")));
+
+        assertEquals(1, response.deleted());
+        assertEquals(0, countUsers(primary, "stale@mykare.com"));
+    }
+
+    private static void insertUser(JdbcTemplate database, long id, String email) {
+        insertUser(database, id, email, Timestamp.from(Instant.now()));
+    }
+
+    private static void insertUser(JdbcTemplate database, long id, String email, Timestamp createdAt) {
+        database.update("insert into user_data (id, name, email, email_normalized, gender, password, role, created_at) "
+                + "values (?, 'Routed', ?, ?, 'MALE', 'hash', 'USER', ?)", id, email, email, createdAt);
+    }
+
+    private static int countUsers(JdbcTemplate database, String email) {
+        return database.queryForObject("select count(*) from user_data where email_normalized = ?", Integer.class, email);
+    }
+}
@@ -0,0 +1,45 @@
+package com.mykare.user_registration.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.mykare.user_registration.dto.BulkDeleteRequestDTO;
+import com.mykare.user_registration.dto.RefreshTokenRequestDTO;
+import com.mykare.user_registration.dto.UserRequestDTO;
+import com.mykare.user_registration.dto.ValidationRequestDTO;
+import com.mykare.user_registration.exception.InvalidTokenException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+/**
+ * Refresh tokens are keyed by normalized email, so a bulk delete has to remove
+ * them with the users: otherwise a token of the deleted account would keep
+ * minting access tokens once somebody registers the same address again.
+ */
+@SpringBootTest(properties = "password.bcrypt.strength=4")
+class BulkDeleteIntegrationTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserBulkService userBulkService;
+
+    @Test
+    void bulkDelete_ShouldRevokeRefreshTokens_WhenEmailIsRegisteredAgain() {
+
+        UserRequestDTO user = new UserRequestDTO("Former", "former@mykare.com", "male", "password1");
+        userService.registerUser(user);
+        String oldRefreshToken = userService
+                .validateUser(new ValidationRequestDTO("former@mykare.com", "password1"), "203.0.113.9")
+                .refreshToken();
+
+        userBulkService.deleteUsers(new BulkDeleteRequestDTO(List.of("Former@mykare.com"), null, null, null));
+        userService.registerUser(new UserRequestDTO("Successor", "former@mykare.com", "female", "password2"));
+
+        assertThrows(InvalidTokenException.class,
+                () -> userService.refreshToken(new RefreshTokenRequestDTO(oldRefreshToken)));
+    }
+}
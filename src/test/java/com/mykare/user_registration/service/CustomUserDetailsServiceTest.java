@@ -0,0 +1,134 @@
+package com.mykare.user_registration.service;
+
+import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mykare.user_registration.cache.InMemorySharedCacheStore;
+import com.mykare.user_registration.config.ReadYourWrites;
+import com.mykare.user_registration.config.RequestPathMetrics;
+import com.mykare.user_registration.exception.UserNotFoundException;
+import com.mykare.user_registration.model.Gender;
+import com.mykare.user_registration.model.Role;
+import com.mykare.user_registration.model.User;
+import com.mykare.user_registration.repo.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Duration;
+import java.util.Optional;
+
+class CustomUserDetailsServiceTest {
+
+    private UserRepository userRepository;
+
+    private InMemorySharedCacheStore sharedCacheStore;
+
+    private CustomUserDetailsService customUserDetailsService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        sharedCacheStore = new InMemorySharedCacheStore();
+        customUserDetailsService = newService();
+        user = new User(1L, "User One", "User1@Mykare.com", Gender.MALE, "{bcrypt}hash", Role.USER);
+        when(userRepository.findByNormalizedEmail("user1@mykare.com")).thenReturn(Optional.of(user));
+    }
+
+    @Test
+    void loadUserByUsername_ShouldHitDatabaseOnce_ForRepeatedLoginsInAnyCase() {
+
+        customUserDetailsService.loadUserByUsername("user1@mykare.com");
+        UserDetails second = customUserDetailsService.loadUserByUsername("USER1@mykare.com");
+
+        assertEquals("{bcrypt}hash", second.getPassword());
+        verify(userRepository, times(1)).findByNormalizedEmail("user1@mykare.com");
+        assertEquals(1, customUserDetailsService.cacheStats().hitCount());
+    }
+
+    @Test
+    void loadUserByUsername_ShouldReturnFreshCopy_WhenPreviousCopyHadCredentialsErased() {
+
+        UserDetails first = customUserDetailsService.loadUserByUsername("user1@mykare.com");
+        ((CredentialsContainer) first).eraseCredentials();
+
+        UserDetails second = customUserDetailsService.loadUserByUsername("user1@mykare.com");
+
+        assertNull(first.getPassword());
+        assertEquals("{bcrypt}hash", second.getPassword());
+    }
+
+    @Test
+    void loadUserByUsername_ShouldReload_AfterEvict() {
+
+        customUserDetailsService.loadUserByUsername("user1@mykare.com");
+        user.setPassword("{bcrypt}changed");
+        customUserDetailsService.evict("User1@Mykare.com");
+
+        UserDetails reloaded = customUserDetailsService.loadUserByUsername("user1@mykare.com");
+
+        assertEquals("{bcrypt}changed", reloaded.getPassword());
+        verify(userRepository, times(2)).findByNormalizedEmail("user1@mykare.com");
+    }
+
+    @Test
+    void loadUserByUsername_ShouldNotCacheMissingUser() {
+
+        when(userRepository.findByNormalizedEmail("new@mykare.com")).thenReturn(Optional.empty());
+        assertThrows(UserNotFoundException.class, () -> customUserDetailsService.loadUserByUsername("new@mykare.com"));
+
+        User registered = new User(2L, "New", "new@mykare.com", Gender.FEMALE, "{bcrypt}new", Role.USER);
+        when(userRepository.findByNormalizedEmail("new@mykare.com")).thenReturn(Optional.of(registered));
+
+        assertEquals("{bcrypt}new", customUserDetailsService.loadUserByUsername("new@mykare.com").getPassword());
+    }
+
+    @Test
+    void updatePassword_ShouldPersistAndInvalidateCachedEntry() {
+
+        customUserDetailsService.loadUserByUsername("user1@mykare.com");
+        when(userRepository.findByEmail("User1@Mykare.com")).thenReturn(Optional.of(user));
+
+        customUserDetailsService.updatePassword(
+                customUserDetailsService.loadUserByUsername("user1@mykare.com"), "{bcrypt}upgraded");
+
+        verify(userRepository).save(user);
+        assertEquals("{bcrypt}upgraded", customUserDetailsService.loadUserByUsername("user1@mykare.com").getPassword());
+    }
+
+    @Test
+    void loadUserByUsername_ShouldUseSharedTier_WhenAnotherNodeLoadedTheUser() {
+
+        CustomUserDetailsService otherNode = newService();
+        customUserDetailsService.loadUserByUsername("user1@mykare.com");
+
+        UserDetails fromOtherNode = otherNode.loadUserByUsername("user1@mykare.com");
+
+        assertEquals("{bcrypt}hash", fromOtherNode.getPassword());
+        assertEquals("USER", fromOtherNode.getAuthorities().iterator().next().getAuthority());
+        verify(userRepository, times(1)).findByNormalizedEmail("user1@mykare.com");
+    }
+
+    @Test
+    void evict_ShouldDropNearCacheEntryOnOtherNodes() {
+
+        CustomUserDetailsService otherNode = newService();
+        otherNode.loadUserByUsername("user1@mykare.com");
+        when(userRepository.findByNormalizedEmail("user1@mykare.com")).thenReturn(Optional.empty());
+
+        customUserDetailsService.evict("user1@mykare.com");
+
+        assertThrows(UserNotFoundException.class, () -> otherNode.loadUserByUsername("user1@mykare.com"));
+    }
+
+    private CustomUserDetailsService newService() {
+        return new CustomUserDetailsService(userRepository, sharedCacheStore, new ObjectMapper(),
+                new RequestPathMetrics(new SimpleMeterRegistry()),
+                new ReadYourWrites(sharedCacheStore, "", Duration.ofSeconds(5)), 100, Duration.ofMinutes(5));
+    }
+}
\ No newline at end of file
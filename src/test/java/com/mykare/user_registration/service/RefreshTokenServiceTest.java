@@ -0,0 +1,108 @@
+package com.mykare.user_registration.service;
+
+import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.mykare.user_registration.config.TokenRevocationList;
+import com.mykare.user_registration.exception.InvalidTokenException;
+import com.mykare.user_registration.model.RefreshToken;
+import com.mykare.user_registration.repo.RefreshTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+class RefreshTokenServiceTest {
+
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private TokenRevocationList tokenRevocationList;
+
+    private RefreshTokenService refreshTokenService;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenRepository = mock(RefreshTokenRepository.class);
+        tokenRevocationList = mock(TokenRevocationList.class);
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository, tokenRevocationList, Duration.ofDays(30));
+    }
+
+    @Test
+    void issue_ShouldStoreOnlyTheHashOfTheReturnedToken() {
+
+        String raw = refreshTokenService.issue("User@Mykare.com");
+
+        RefreshToken stored = captureSaved();
+        assertNotEquals(raw, stored.getTokenHash());
+        assertEquals("user@mykare.com", stored.getUserEmail());
+        assertNotNull(stored.getFamilyId());
+        assertTrue(stored.getExpiresAt().isAfter(Instant.now().plus(Duration.ofDays(29))));
+    }
+
+    @Test
+    void rotate_ShouldConsumeTokenAndIssueSuccessorInSameFamily() {
+
+        String raw = refreshTokenService.issue("user@mykare.com");
+        RefreshToken stored = captureSaved();
+        stored.setId(1L);
+        when(refreshTokenRepository.findByTokenHash(stored.getTokenHash())).thenReturn(Optional.of(stored));
+        when(refreshTokenRepository.markUsed(eq(1L), any())).thenReturn(1);
+        clearInvocations(refreshTokenRepository);
+
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(raw);
+
+        RefreshToken successor = captureSaved();
+        assertEquals("user@mykare.com", rotation.email());
+        assertNotEquals(raw, rotation.refreshToken());
+        assertEquals(stored.getFamilyId(), successor.getFamilyId());
+        verify(tokenRevocationList, never()).revokeAllFor(any());
+    }
+
+    @Test
+    void rotate_ShouldRevokeFamilyAndAccessTokens_WhenTokenIsReused() {
+
+        String raw = refreshTokenService.issue("user@mykare.com");
+        RefreshToken stored = captureSaved();
+        stored.setId(1L);
+        stored.setUsedAt(Instant.now().minusSeconds(5));
+        when(refreshTokenRepository.findByTokenHash(stored.getTokenHash())).thenReturn(Optional.of(stored));
+
+        assertThrows(InvalidTokenException.class, () -> refreshTokenService.rotate(raw));
+
+        verify(refreshTokenRepository).revokeFamily(stored.getFamilyId());
+        verify(tokenRevocationList).revokeAllFor("user@mykare.com");
+        verify(refreshTokenRepository, never()).markUsed(any(), any());
+    }
+
+    @Test
+    void rotate_ShouldTreatLostRaceAsReuse() {
+
+        String raw = refreshTokenService.issue("user@mykare.com");
+        RefreshToken stored = captureSaved();
+        stored.setId(1L);
+        when(refreshTokenRepository.findByTokenHash(stored.getTokenHash())).thenReturn(Optional.of(stored));
+        when(refreshTokenRepository.markUsed(eq(1L), any())).thenReturn(0);
+
+        assertThrows(InvalidTokenException.class, () -> refreshTokenService.rotate(raw));
+
+        verify(refreshTokenRepository).revokeFamily(stored.getFamilyId());
+    }
+
+    @Test
+    void rotate_ShouldThrowInvalidTokenException_WhenTokenIsUnknown() {
+
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.empty());
+
+        assertThrows(InvalidTokenException.class, () -> refreshTokenService.rotate("unknown"));
+        verify(refreshTokenRepository, never()).revokeFamily(any());
+    }
+
+    private RefreshToken captureSaved() {
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository, atLeastOnce()).save(captor.capture());
+        return captor.getValue();
+    }
+}
@@ -0,0 +1,278 @@
+package com.mykare.user_registration.service;
+
+import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.mykare.user_registration.cache.InMemorySharedCacheStore;
+import com.mykare.user_registration.config.PasswordHashingExecutor;
+import com.mykare.user_registration.config.ReadYourWrites;
+import com.mykare.user_registration.config.TokenRevocationList;
+import com.mykare.user_registration.dto.BulkDeleteRequestDTO;
+import com.mykare.user_registration.dto.BulkDeleteResponseDTO;
+import com.mykare.user_registration.dto.BulkRegistrationResponseDTO;
+import com.mykare.user_registration.dto.BulkRegistrationResultDTO;
+import com.mykare.user_registration.dto.BulkRowStatus;
+import com.mykare.user_registration.dto.UserRequestDTO;
+import com.mykare.user_registration.exception.BulkLimitExceededException;
+import com.mykare.user_registration.exception.InvalidBulkRequestException;
+import com.mykare.user_registration.model.Role;
+import com.mykare.user_registration.model.User;
+import com.mykare.user_registration.repo.UserRepository;
+import com.mykare.user_registration.utils.UserUtils;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+class UserBulkServiceTest {
+
+    private UserRepository userRepository;
+
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    private RefreshTokenService refreshTokenService;
+
+    private UserBulkService userBulkService;
+
+    private final AtomicLong ids = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+        when(passwordEncoder.encode(any())).thenAnswer(invocation -> "hashed-" + invocation.getArgument(0));
+        passwordHashingExecutor = new PasswordHashingExecutor(2, 10, false);
+        refreshTokenService = mock(RefreshTokenService.class);
+
+        userBulkService = new UserBulkService(userRepository, passwordEncoder, new UserUtils(), passwordHashingExecutor,
+                mock(CustomUserDetailsService.class), mock(TokenRevocationList.class), refreshTokenService,
+                new ReadYourWrites(new InMemorySharedCacheStore(), "", Duration.ofSeconds(5)),
+                Validation.buildDefaultValidatorFactory().getValidator(), mock(EntityManager.class),
+                mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(userBulkService, "maxRows", 5);
+        ReflectionTestUtils.setField(userBulkService, "chunkSize", 2);
+        ReflectionTestUtils.setField(userBulkService, "hashBatchSize", 2);
+        ReflectionTestUtils.setField(userBulkService, "maxDeleteRows", 5);
+        ReflectionTestUtils.setField(userBulkService, "deleteChunkSize", 2);
+        ReflectionTestUtils.setField(userBulkService, "adminEmail", "admin@example.com");
+
+        when(userRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            users.forEach(user -> user.setId(ids.incrementAndGet()));
+            return users;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        passwordHashingExecutor.shutdown();
+    }
+
+    @Test
+    void registerUsers_ShouldReportEachRow() {
+
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(Set.of("taken@mykare.com"));
+
+        BulkRegistrationResponseDTO response = userBulkService.registerUsers(List.of(
+                new UserRequestDTO("One", "one@mykare.com", "male", "password1"),
+                new UserRequestDTO("Taken", "taken@mykare.com", "male", "password2"),
+                new UserRequestDTO("", "not-an-email", "male", "password3"),
+                new UserRequestDTO("Two", "two@mykare.com", "female", "password4"),
+                new UserRequestDTO("One again", "one@mykare.com", "male", "password5")
+        ));
+
+        assertEquals(5, response.total());
+        assertEquals(2, response.created());
+        assertEquals(3, response.failed());
+        assertEquals(BulkRowStatus.CREATED, response.results().get(0).status());
+        assertEquals(BulkRowStatus.DUPLICATE, response.results().get(1).status());
+        assertEquals(BulkRowStatus.INVALID, response.results().get(2).status());
+        assertEquals(BulkRowStatus.CREATED, response.results().get(3).status());
+        assertEquals(BulkRowStatus.DUPLICATE, response.results().get(4).status());
+        assertNotNull(response.results().get(3).id());
+
+        verify(userRepository, times(1)).findExistingEmails(anyCollection());
+        verify(userRepository, times(1)).saveAll(anyList());
+        verify(userRepository, never()).existsByEmail(any());
+    }
+
+    @Test
+    void registerUsers_ShouldFallBackToSingleInserts_WhenBatchHitsUniqueConstraint() {
+
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(Set.of());
+        doThrow(new DataIntegrityViolationException("duplicate")).when(userRepository).flush();
+        when(userRepository.saveAndFlush(any(User.class))).thenAnswer(invocation -> {
+            User user = invocation.getArgument(0);
+            if (user.getEmail().equals("raced@mykare.com")) {
+                throw new DataIntegrityViolationException("duplicate",
+                        new ConstraintViolationException("duplicate", null, "PUBLIC.UK_USER_DATA_EMAIL_NORMALIZED"));
+            }
+            user.setId(ids.incrementAndGet());
+            return user;
+        });
+
+        BulkRegistrationResponseDTO response = userBulkService.registerUsers(List.of(
+                new UserRequestDTO("One", "one@mykare.com", "male", "password1"),
+                new UserRequestDTO("Raced", "raced@mykare.com", "male", "password2")
+        ));
+
+        assertEquals(1, response.created());
+        assertEquals(BulkRowStatus.CREATED, response.results().get(0).status());
+        assertEquals(BulkRowStatus.DUPLICATE, response.results().get(1).status());
+    }
+
+    @Test
+    void registerUsers_ShouldReportCommittedRows_WhenALaterChunkFailsForAnotherReason() {
+
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(Set.of());
+        doNothing().doThrow(new TransientDataAccessResourceException("connection reset")).when(userRepository).flush();
+        when(userRepository.saveAndFlush(any(User.class))).thenAnswer(invocation -> {
+            User user = invocation.getArgument(0);
+            if (user.getEmail().equals("four@mykare.com")) {
+                throw new TransientDataAccessResourceException("connection reset");
+            }
+            user.setId(ids.incrementAndGet());
+            return user;
+        });
+
+        BulkRegistrationResponseDTO response = userBulkService.registerUsers(List.of(
+                new UserRequestDTO("One", "one@mykare.com", "male", "password1"),
+                new UserRequestDTO("Two", "two@mykare.com", "male", "password2"),
+                new UserRequestDTO("Three", "three@mykare.com", "male", "password3"),
+                new UserRequestDTO("Four", "four@mykare.com", "male", "password4")
+        ));
+
+        assertEquals(3, response.created());
+        assertEquals(List.of(BulkRowStatus.CREATED, BulkRowStatus.CREATED, BulkRowStatus.CREATED, BulkRowStatus.FAILED),
+                response.results().stream().map(BulkRegistrationResultDTO::status).toList());
+    }
+
+    @Test
+    void registerUsers_ShouldHashInSmallBatchesOnHalfThePool() {
+
+        AtomicInteger hashing = new AtomicInteger();
+        AtomicInteger maxHashing = new AtomicInteger();
+        PasswordEncoder slowEncoder = mock(PasswordEncoder.class);
+        when(slowEncoder.encode(any())).thenAnswer(invocation -> {
+            maxHashing.accumulateAndGet(hashing.incrementAndGet(), Math::max);
+            Thread.sleep(5);
+            hashing.decrementAndGet();
+            return "hashed-" + invocation.getArgument(0);
+        });
+        ReflectionTestUtils.setField(userBulkService, "passwordEncoder", slowEncoder);
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(Set.of());
+
+        BulkRegistrationResponseDTO response = userBulkService.registerUsers(List.of(
+                new UserRequestDTO("One", "one@mykare.com", "male", "password1"),
+                new UserRequestDTO("Two", "two@mykare.com", "male", "password2"),
+                new UserRequestDTO("Three", "three@mykare.com", "male", "password3"),
+                new UserRequestDTO("Four", "four@mykare.com", "male", "password4"),
+                new UserRequestDTO("Five", "five@mykare.com", "male", "password5")
+        ));
+
+        assertEquals(5, response.created());
+        assertEquals(1, maxHashing.get());
+        verify(slowEncoder, times(5)).encode(any());
+    }
+
+    @Test
+    void registerUsers_ShouldThrowBulkLimitExceededException_WhenTooManyRows() {
+
+        List<UserRequestDTO> requests = Collections.nCopies(6,
+                new UserRequestDTO("One", "one@mykare.com", "male", "password1"));
+
+        assertThrows(BulkLimitExceededException.class, () -> userBulkService.registerUsers(requests));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void deleteUsers_ShouldDeleteEmailsInChunksAndSkipAdmin() {
+
+        when(userRepository.deleteByEmailIn(anyCollection())).thenAnswer(invocation ->
+                ((Collection<?>) invocation.getArgument(0)).size());
+
+        BulkDeleteResponseDTO response = userBulkService.deleteUsers(new BulkDeleteRequestDTO(
+                List.of("a@mykare.com", "b@mykare.com", "ADMIN@example.com", "c@mykare.com"), null, null, null));
+
+        assertEquals(3, response.deleted());
+        assertEquals(1, response.protectedSkipped());
+        verify(userRepository).deleteByEmailIn(List.of("a@mykare.com", "b@mykare.com"));
+        verify(userRepository).deleteByEmailIn(List.of("c@mykare.com"));
+        verify(refreshTokenService).revokeAllFor(List.of("a@mykare.com", "b@mykare.com"));
+        verify(refreshTokenService).revokeAllFor(List.of("c@mykare.com"));
+        verify(userRepository, never()).findByEmail(any());
+    }
+
+    @Test
+    void deleteUsers_ShouldSeekThroughFilterMatchesChunkByChunk() {
+
+        when(userRepository.findIdsForDeletion(Role.USER, null, null, "admin@example.com", 0L, PageRequest.of(0, 2)))
+                .thenReturn(List.of(3L, 7L));
+        when(userRepository.findIdsForDeletion(Role.USER, null, null, "admin@example.com", 7L, PageRequest.of(0, 2)))
+                .thenReturn(List.of(9L));
+        when(userRepository.findIdsForDeletion(Role.USER, null, null, "admin@example.com", 9L, PageRequest.of(0, 2)))
+                .thenReturn(List.of());
+        when(userRepository.deleteByIdIn(anyCollection())).thenAnswer(invocation ->
+                ((Collection<?>) invocation.getArgument(0)).size());
+
+        BulkDeleteResponseDTO response = userBulkService.deleteUsers(
+                new BulkDeleteRequestDTO(null, Role.USER, null, null));
+
+        assertEquals(3, response.deleted());
+        assertEquals(0, response.protectedSkipped());
+        assertFalse(response.hasMore());
+        verify(userRepository).deleteByIdIn(List.of(3L, 7L));
+        verify(userRepository).deleteByIdIn(List.of(9L));
+    }
+
+    @Test
+    void deleteUsers_ShouldStopAtMaxRowsAndReportTheRest_WhenFilterMatchesMore() {
+
+        when(userRepository.findIdsForDeletion(any(), any(), any(), any(), anyLong(), any())).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(4);
+            int size = ((PageRequest) invocation.getArgument(5)).getPageSize();
+            return LongStream.rangeClosed(afterId + 1, afterId + size).boxed().toList();
+        });
+        when(userRepository.deleteByIdIn(anyCollection())).thenAnswer(invocation ->
+                ((Collection<?>) invocation.getArgument(0)).size());
+        when(userRepository.matchesDeletionFilter(Role.USER, null, null, "admin@example.com")).thenReturn(true);
+
+        BulkDeleteResponseDTO response = userBulkService.deleteUsers(
+                new BulkDeleteRequestDTO(null, Role.USER, null, null));
+
+        assertEquals(5, response.deleted());
+        assertEquals(1, response.protectedSkipped());
+        assertTrue(response.hasMore());
+        verify(userRepository).deleteByIdIn(List.of(1L, 2L));
+        verify(userRepository).deleteByIdIn(List.of(3L, 4L));
+        verify(userRepository).deleteByIdIn(List.of(5L));
+        verify(userRepository, times(3)).deleteByIdIn(anyCollection());
+    }
+
+    @Test
+    void deleteUsers_ShouldThrowInvalidBulkRequestException_WhenNeitherOrBothModesAreGiven() {
+
+        assertThrows(InvalidBulkRequestException.class, () -> userBulkService.deleteUsers(
+                new BulkDeleteRequestDTO(List.of(), null, null, null)));
+        assertThrows(InvalidBulkRequestException.class, () -> userBulkService.deleteUsers(
+                new BulkDeleteRequestDTO(List.of("a@mykare.com"), Role.USER, null, null)));
+        verifyNoInteractions(userRepository);
+    }
+}
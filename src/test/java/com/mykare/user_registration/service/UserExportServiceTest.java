@@ -0,0 +1,65 @@
+package com.mykare.user_registration.service;
+
+import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mykare.user_registration.dto.UserResponseDTO;
+import com.mykare.user_registration.model.Gender;
+import com.mykare.user_registration.model.Role;
+import com.mykare.user_registration.repo.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+class UserExportServiceTest {
+
+    private UserRepository userRepository;
+
+    private UserExportService userExportService;
+
+    private final AtomicBoolean streamClosed = new AtomicBoolean();
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        userExportService = new UserExportService(userRepository, new ObjectMapper());
+        when(userRepository.streamAllForExport()).thenReturn(Stream.of(
+                new UserResponseDTO(1L, "User One", "user1@example.com", Gender.MALE, Role.USER),
+                new UserResponseDTO(2L, "Two, \"Jr\"", "user2@example.com", Gender.FEMALE, Role.ADMIN)
+        ).onClose(() -> streamClosed.set(true)));
+    }
+
+    @Test
+    void export_ShouldWriteOneJsonObjectPerLine_WhenFormatIsNdjson() throws Exception {
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = userExportService.export(UserExportService.Format.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, count);
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"email\":\"user1@example.com\""));
+        assertTrue(lines[1].contains("\"role\":\"ADMIN\""));
+        assertTrue(streamClosed.get());
+    }
+
+    @Test
+    void export_ShouldWriteHeaderAndQuoteFields_WhenFormatIsCsv() throws Exception {
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        userExportService.export(UserExportService.Format.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals("id,name,email,gender,role", lines[0]);
+        assertEquals("1,User One,user1@example.com,MALE,USER", lines[1]);
+        assertEquals("2,\"Two, \"\"Jr\"\"\",user2@example.com,FEMALE,ADMIN", lines[2]);
+        assertTrue(streamClosed.get());
+    }
+}
@@ -0,0 +1,96 @@
+package com.mykare.user_registration.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.mykare.user_registration.dto.UserRequestDTO;
+import com.mykare.user_registration.repo.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Registration relies on the unique index on the normalized email alone, so
+ * concurrent or case-variant submissions of the same address must produce
+ * exactly one 201 and a 400 for every other request.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "password.bcrypt.strength=4")
+class UserRegistrationIntegrationTest {
+
+    private static final int SUBMISSIONS = 16;
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final RestTemplate restTemplate = new RestTemplate();
+
+    @Test
+    void concurrentDuplicateRegistrations_ShouldCreateOneUserAndRejectTheRest() throws Exception {
+
+        String url = "http://localhost:" + port + "/api/v1/register";
+        UserRequestDTO request = new UserRequestDTO("racer", "race@mykare.com", "male", "password1");
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService clients = Executors.newFixedThreadPool(SUBMISSIONS);
+
+        List<Future<HttpStatusCode>> responses = new ArrayList<>();
+        for (int i = 0; i < SUBMISSIONS; i++) {
+            responses.add(clients.submit(() -> {
+                start.await();
+                try {
+                    return restTemplate.postForEntity(url, new HttpEntity<>(request), String.class).getStatusCode();
+                } catch (HttpClientErrorException e) {
+                    return e.getStatusCode();
+                }
+            }));
+        }
+        start.countDown();
+
+        int created = 0;
+        int rejected = 0;
+        for (Future<HttpStatusCode> response : responses) {
+            int status = response.get().value();
+            if (status == 201) {
+                created++;
+            } else if (status == 400) {
+                rejected++;
+            }
+        }
+        clients.shutdown();
+
+        assertEquals(1, created);
+        assertEquals(SUBMISSIONS - 1, rejected);
+    }
+
+    @Test
+    void caseVariantRegistration_ShouldBeRejectedAndLookupsIgnoreCase() {
+
+        String url = "http://localhost:" + port + "/api/v1/register";
+        restTemplate.postForEntity(url,
+                new HttpEntity<>(new UserRequestDTO("mixed", "Mixed.Case@Mykare.com", "female", "password1")), String.class);
+
+        HttpClientErrorException exception = assertThrows(HttpClientErrorException.class, () ->
+                restTemplate.postForEntity(url,
+                        new HttpEntity<>(new UserRequestDTO("mixed", "mixed.case@mykare.com ", "female", "password1")),
+                        String.class));
+
+        assertEquals(400, exception.getStatusCode().value());
+        assertTrue(userRepository.existsByEmail("MIXED.CASE@MYKARE.COM"));
+        assertEquals("mixed.case@mykare.com",
+                userRepository.findByEmail("Mixed.Case@mykare.com").orElseThrow().getNormalizedEmail());
+    }
+}
@@ -3,10 +3,19 @@ package com.mykare.user_registration.service;
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
+import com.mykare.user_registration.cache.InMemorySharedCacheStore;
+import com.mykare.user_registration.config.JwtPrincipal;
 import com.mykare.user_registration.config.JwtService;
+import com.mykare.user_registration.config.LoginThrottle;
+import com.mykare.user_registration.config.PasswordHashingExecutor;
+import com.mykare.user_registration.config.ReadYourWrites;
+import com.mykare.user_registration.config.RequestPathMetrics;
+import com.mykare.user_registration.config.TokenRevocationList;
 import com.mykare.user_registration.dto.*;
 import com.mykare.user_registration.exception.AccessDeniedException;
 import com.mykare.user_registration.exception.InvalidCredentialsException;
+import com.mykare.user_registration.exception.InvalidTokenException;
+import com.mykare.user_registration.exception.TooManyLoginAttemptsException;
 import com.mykare.user_registration.exception.UserAlreadyExistsException;
 import com.mykare.user_registration.exception.UserNotFoundException;
 import com.mykare.user_registration.model.Gender;
@@ -14,23 +23,30 @@ import com.mykare.user_registration.model.Role;
 import com.mykare.user_registration.model.User;
 import com.mykare.user_registration.repo.UserRepository;
 import com.mykare.user_registration.utils.UserUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 class UserServiceTest {
 
@@ -43,15 +59,38 @@ class UserServiceTest {
     @Mock
     private UserUtils userUtils;
     
-    @Mock
-    private AuthenticationManager authenticationManager;
-    
     @Mock
     private JwtService jwtService;
+
+    @Mock
+    private CustomUserDetailsService userDetailsService;
+
+    @Mock
+    private TokenRevocationList tokenRevocationList;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @Mock
+    private LoginThrottle loginThrottle;
+
+    @Mock
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @Spy
+    private AsyncTaskExecutor applicationTaskExecutor = new TaskExecutorAdapter(Runnable::run);
+
+    @Spy
+    private RequestPathMetrics metrics = new RequestPathMetrics(new SimpleMeterRegistry());
+
+    @Spy
+    private ReadYourWrites readYourWrites = new ReadYourWrites(new InMemorySharedCacheStore(), "", Duration.ofSeconds(5));
     
     @InjectMocks
     private UserService userService; 
 
+    private static final String CLIENT_IP = "203.0.113.7";
+
     private UserRequestDTO userRequestDTO;
 
     @Value("${admin.email}")
@@ -62,31 +101,49 @@ class UserServiceTest {
        
         MockitoAnnotations.openMocks(this);
         ReflectionTestUtils.setField(userService, "adminEmail", "admin@example.com");
+        when(passwordHashingExecutor.submit(any()))
+                .thenAnswer(invocation -> CompletableFuture.supplyAsync(invocation.getArgument(0), Runnable::run));
         userRequestDTO = 
                 new UserRequestDTO("tesuser", "test@mykare.com", "MALE", "password123");
     }
 
     @Test
     void testRegisterUser_WhenEmailExists_ShouldThrowException() {
-    
-        when(userRepository.existsByEmail(userRequestDTO.email())).thenReturn(true);
-        
+
+        User user = new User(null, "tesuser", "test@mykare.com", Gender.MALE, "password123", Role.USER);
+        when(passwordEncoder.encode("password123")).thenReturn("hash");
+        when(userUtils.dtoToUser(userRequestDTO, "hash")).thenReturn(user);
+        when(userRepository.saveAndFlush(user)).thenThrow(new DataIntegrityViolationException("duplicate",
+                new ConstraintViolationException("duplicate", null, "PUBLIC.UK_USER_DATA_EMAIL_NORMALIZED")));
+
         UserAlreadyExistsException exception = assertThrows(UserAlreadyExistsException.class, () -> {
             userService.registerUser(userRequestDTO);
         });
         assertEquals("User with email " + userRequestDTO.email() + " already exists", exception.getMessage());
-        
-        verify(userRepository, times(1)).existsByEmail(userRequestDTO.email());
+
+        verify(userRepository, never()).existsByEmail(userRequestDTO.email());
+    }
+
+    @Test
+    void testRegisterUser_WhenOtherConstraintFails_ShouldRethrow() {
+
+        User user = new User(null, "tesuser", "test@mykare.com", Gender.MALE, "password123", Role.USER);
+        when(passwordEncoder.encode("password123")).thenReturn("hash");
+        when(userUtils.dtoToUser(userRequestDTO, "hash")).thenReturn(user);
+        when(userRepository.saveAndFlush(user)).thenThrow(new DataIntegrityViolationException("not null",
+                new ConstraintViolationException("not null", null, "PUBLIC.CK_SOMETHING_ELSE")));
+
+        assertThrows(DataIntegrityViolationException.class, () -> userService.registerUser(userRequestDTO));
     }
 
     @Test
     void testRegisterUser_WhenEmailDoesNotExist_ShouldReturnUserResponseDTO() {
-        when(userRepository.existsByEmail(userRequestDTO.email())).thenReturn(false);
 
         User user = new User(1L, "tesuser", "test@mykare.com", Gender.MALE, "password123", Role.ADMIN);
-        when(userUtils.dtoToUser(userRequestDTO, passwordEncoder)).thenReturn(user);
+        when(passwordEncoder.encode("password123")).thenReturn("hash");
+        when(userUtils.dtoToUser(userRequestDTO, "hash")).thenReturn(user);
 
-        when(userRepository.save(user)).thenReturn(user);
+        when(userRepository.saveAndFlush(user)).thenReturn(user);
 
         UserResponseDTO userResponseDTO = new UserResponseDTO(1L, "tesuser", "test@mykare.com", Gender.MALE, Role.ADMIN);
         when(userUtils.userToDto(user)).thenReturn(userResponseDTO);
@@ -100,8 +157,23 @@ class UserServiceTest {
         assertEquals(Gender.MALE, result.gender());
         assertEquals(Role.ADMIN, result.role());
 
-        verify(userRepository, times(1)).existsByEmail(userRequestDTO.email());
-        verify(userRepository, times(1)).save(user);
+        verify(userRepository, never()).existsByEmail(userRequestDTO.email());
+        verify(userRepository, times(1)).saveAndFlush(user);
+    }
+
+    @Test
+    void registerUserAsync_ShouldInsertAfterHashingOnPool() {
+
+        User user = new User(1L, "tesuser", "test@mykare.com", Gender.MALE, "hash", Role.USER);
+        when(passwordEncoder.encode("password123")).thenReturn("hash");
+        when(userUtils.dtoToUser(userRequestDTO, "hash")).thenReturn(user);
+        when(userRepository.saveAndFlush(user)).thenReturn(user);
+        UserResponseDTO expected = new UserResponseDTO(1L, "tesuser", "test@mykare.com", Gender.MALE, Role.USER);
+        when(userUtils.userToDto(user)).thenReturn(expected);
+
+        assertEquals(expected, userService.registerUserAsync(userRequestDTO).join());
+        verify(passwordHashingExecutor, times(1)).submit(any());
+        verify(applicationTaskExecutor, atLeastOnce()).execute(any(Runnable.class));
     }
 
     @Test
@@ -116,22 +188,25 @@ class UserServiceTest {
 
         ValidationRequestDTO validationRequestDTO = new ValidationRequestDTO(email, password);
 
-        Authentication authentication = mock(Authentication.class);
-        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class))).thenReturn(authentication);
-        when(jwtService.generateToken(authentication, Role.USER.toString())).thenReturn(token);
+        when(userDetailsService.loadUserByUsername(email)).thenReturn(userDetails(email, "hash"));
+        when(passwordEncoder.matches(password, "hash")).thenReturn(true);
+        when(jwtService.generateToken(email, Role.USER.toString())).thenReturn(token);
         when(jwtService.getExpirationTime()).thenReturn(expirationTime);
+        when(refreshTokenService.issue(email)).thenReturn("refresh");
 
 
-        ValidationResponseDTO response = userService.validateUser(validationRequestDTO);
+        ValidationResponseDTO response = userService.validateUser(validationRequestDTO, CLIENT_IP);
 
 
         assertNotNull(response);
         assertEquals("User validated successfully", response.message());
         assertEquals(token, response.token());
         assertEquals("1 hour", response.expirationAfter());
+        assertEquals("refresh", response.refreshToken());
 
-        verify(authenticationManager, times(1)).authenticate(any(UsernamePasswordAuthenticationToken.class));
-        verify(jwtService, times(1)).generateToken(authentication, Role.USER.toString());
+        verify(passwordEncoder, times(1)).matches(password, "hash");
+        verify(jwtService, times(1)).generateToken(email, Role.USER.toString());
+        verify(userDetailsService, never()).updatePassword(any(), any());
     }
 
     @Test
@@ -143,16 +218,16 @@ class UserServiceTest {
 
         ValidationRequestDTO validationRequestDTO = new ValidationRequestDTO(email, password);
 
-        Authentication authentication = mock(Authentication.class);
-        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class))).thenReturn(authentication);
-        when(jwtService.generateToken(authentication, Role.ADMIN.toString())).thenReturn(token);
+        when(userDetailsService.loadUserByUsername(email)).thenReturn(userDetails(email, "hash"));
+        when(passwordEncoder.matches(password, "hash")).thenReturn(true);
+        when(jwtService.generateToken(email, Role.ADMIN.toString())).thenReturn(token);
 
-        ValidationResponseDTO response = userService.validateUser(validationRequestDTO);
+        ValidationResponseDTO response = userService.validateUser(validationRequestDTO, CLIENT_IP);
 
         assertNotNull(response);
         assertEquals("User validated successfully", response.message());
         assertEquals(token, response.token());
-        verify(jwtService, times(1)).generateToken(authentication, Role.ADMIN.toString());
+        verify(jwtService, times(1)).generateToken(email, Role.ADMIN.toString());
     }
 
     @Test
@@ -162,30 +237,77 @@ class UserServiceTest {
         String password = "wrongpassword";
         ValidationRequestDTO validationRequestDTO = new ValidationRequestDTO(email, password);
 
-        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
-                .thenThrow(new InvalidCredentialsException("Invalid email or password"));
+        when(userDetailsService.loadUserByUsername(email)).thenReturn(userDetails(email, "hash"));
+        when(passwordEncoder.matches(password, "hash")).thenReturn(false);
 
         InvalidCredentialsException exception = assertThrows(
                 InvalidCredentialsException.class,
-                () -> userService.validateUser(validationRequestDTO)
+                () -> userService.validateUser(validationRequestDTO, CLIENT_IP)
         );
         assertEquals("Invalid email or password", exception.getMessage());
+        verify(loginThrottle).recordFailure(email, CLIENT_IP);
+        verify(jwtService, never()).generateToken(anyString(), anyString());
     }
 
     @Test
-    void testGetAllUsers_Success() {
+    void validateUser_ShouldStillHash_WhenEmailIsUnknown() {
+
+        ValidationRequestDTO validationRequestDTO = new ValidationRequestDTO("nobody@mykare.com", "guess");
+        when(userDetailsService.loadUserByUsername("nobody@mykare.com"))
+                .thenThrow(new UserNotFoundException("User not found"));
+        when(passwordEncoder.encode(anyString())).thenReturn("dummy");
+
+        assertThrows(InvalidCredentialsException.class,
+                () -> userService.validateUser(validationRequestDTO, CLIENT_IP));
 
-        User user1 = new User(1L, "User One", "user1@example.com", Gender.MALE, "password1", Role.USER);
-        User user2 = new User(2L, "User Two", "user2@example.com", Gender.FEMALE, "password2", Role.ADMIN);
+        verify(passwordEncoder).matches("guess", "dummy");
+        verify(loginThrottle).recordFailure("nobody@mykare.com", CLIENT_IP);
+    }
+
+    @Test
+    void validateUserAsync_ShouldHashOnPoolAndUpgradeOutdatedHash_WhenCredentialsAreValid() {
+
+        String email = "test@mykare.com";
+        UserDetails user = userDetails(email, "{pbkdf2}old");
+        when(userDetailsService.loadUserByUsername(email)).thenReturn(user);
+        when(passwordEncoder.matches("password123", "{pbkdf2}old")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("{pbkdf2}old")).thenReturn(true);
+        when(passwordEncoder.encode("password123")).thenReturn("{bcrypt}new");
+        when(jwtService.generateToken(email, Role.USER.toString())).thenReturn("token");
+
+        ValidationResponseDTO response = userService
+                .validateUserAsync(new ValidationRequestDTO(email, "password123"), CLIENT_IP).join();
+
+        assertEquals("token", response.token());
+        verify(passwordHashingExecutor, times(1)).submit(any());
+        verify(userDetailsService).updatePassword(user, "{bcrypt}new");
+    }
+
+    @Test
+    void validateUser_ShouldRejectWithoutAuthenticating_WhenLoginIsThrottled() {
 
-        Page<User> userPage = new PageImpl<>(Arrays.asList(user1, user2));
-        when(userRepository.findAll(PageRequest.of(0, 2))).thenReturn(userPage);
+        ValidationRequestDTO validationRequestDTO = new ValidationRequestDTO("victim@mykare.com", "guess");
+        doThrow(new TooManyLoginAttemptsException("Too many failed login attempts", 60))
+                .when(loginThrottle).checkAllowed("victim@mykare.com", CLIENT_IP);
+
+        CompletionException async = assertThrows(CompletionException.class,
+                () -> userService.validateUserAsync(validationRequestDTO, CLIENT_IP).join());
+        assertInstanceOf(TooManyLoginAttemptsException.class, async.getCause());
+        assertThrows(TooManyLoginAttemptsException.class,
+                () -> userService.validateUser(validationRequestDTO, CLIENT_IP));
+
+        verify(loginThrottle, times(2)).checkAllowed("victim@mykare.com", CLIENT_IP);
+        verifyNoInteractions(userDetailsService, passwordEncoder, passwordHashingExecutor);
+        verify(loginThrottle, never()).recordFailure(any(), any());
+    }
+
+    @Test
+    void testGetAllUsers_Success() {
 
         UserResponseDTO responseDTO1 = new UserResponseDTO(1L, "User One", "user1@example.com", Gender.MALE, Role.USER);
         UserResponseDTO responseDTO2 = new UserResponseDTO(2L, "User Two", "user2@example.com", Gender.FEMALE, Role.ADMIN);
 
-        when(userUtils.userToDto(user1)).thenReturn(responseDTO1);
-        when(userUtils.userToDto(user2)).thenReturn(responseDTO2);
+        when(userRepository.findResponses(PageRequest.of(0, 2))).thenReturn(Arrays.asList(responseDTO1, responseDTO2));
 
 
         List<UserResponseDTO> result = userService.getAllUsers(0, 2);
@@ -195,16 +317,15 @@ class UserServiceTest {
         assertEquals("User One", result.get(0).name());
         assertEquals("User Two", result.get(1).name());
 
-        verify(userRepository, times(1)).findAll(PageRequest.of(0, 2));
-        verify(userUtils, times(1)).userToDto(user1);
-        verify(userUtils, times(1)).userToDto(user2);
+        verify(userRepository, times(1)).findResponses(PageRequest.of(0, 2));
+        verify(userRepository, never()).findAll(any(PageRequest.class));
+        verifyNoInteractions(userUtils);
     }
 
     @Test
     void testGetAllUsers_EmptyResult() {
 
-        Page<User> emptyPage = new PageImpl<>(Collections.emptyList());
-        when(userRepository.findAll(PageRequest.of(0, 2))).thenReturn(emptyPage);
+        when(userRepository.findResponses(PageRequest.of(0, 2))).thenReturn(Collections.emptyList());
 
 
         List<UserResponseDTO> result = userService.getAllUsers(0, 2);
@@ -212,10 +333,41 @@ class UserServiceTest {
 
         assertTrue(result.isEmpty());
 
-        verify(userRepository, times(1)).findAll(PageRequest.of(0, 2));
+        verify(userRepository, times(1)).findResponses(PageRequest.of(0, 2));
         verifyNoInteractions(userUtils);
     }
 
+    @Test
+    void getUsersAfter_ShouldSeekPastCursorAndReturnNextCursor() {
+
+        UserResponseDTO user3 = new UserResponseDTO(3L, "User Three", "user3@example.com", Gender.MALE, Role.USER);
+        when(userUtils.decodeCursor("Mg")).thenReturn(2L);
+        when(userRepository.findResponsesAfterId(2L, PageRequest.of(0, 1)))
+                .thenReturn(new SliceImpl<>(List.of(user3), PageRequest.of(0, 1), true));
+        when(userUtils.encodeCursor(3L)).thenReturn("Mw");
+
+        UserSliceResponseDTO result = userService.getUsersAfter("Mg", 1);
+
+        assertEquals(1, result.users().size());
+        assertEquals("Mw", result.nextCursor());
+        assertTrue(result.hasNext());
+        verify(userRepository, never()).findAll(any(PageRequest.class));
+    }
+
+    @Test
+    void getUsersAfter_ShouldStartFromBeginningAndEnd_WhenNoCursorAndLastPage() {
+
+        when(userRepository.findResponsesAfterId(0L, PageRequest.of(0, 10)))
+                .thenReturn(new SliceImpl<>(Collections.emptyList(), PageRequest.of(0, 10), false));
+
+        UserSliceResponseDTO result = userService.getUsersAfter(null, 10);
+
+        assertTrue(result.users().isEmpty());
+        assertNull(result.nextCursor());
+        assertFalse(result.hasNext());
+        verify(userUtils, never()).decodeCursor(any());
+    }
+
     @Test
     void deleteUserByEmail_UserDeletedSuccessfully() {
 
@@ -231,6 +383,8 @@ class UserServiceTest {
         assertEquals(userEmail, response.email());
         assertEquals("User deleted successfully", response.message());
         verify(userRepository, times(1)).delete(user);
+        verify(userDetailsService, times(1)).evict(userEmail);
+        verify(tokenRevocationList, times(1)).revokeAllFor(userEmail);
     }
 
     @Test
@@ -260,5 +414,61 @@ class UserServiceTest {
         verify(userRepository, never()).delete(any(User.class));
     }
 
+    @Test
+    void logout_ShouldRevokeOnlyThePresentedToken() {
+
+        JwtPrincipal principal = new JwtPrincipal("user@mykare.com", "USER", "jti-1", Instant.now(),
+                Instant.now().plusSeconds(3600));
+        when(jwtService.parseToken("token")).thenReturn(principal);
+
+        TokenRevocationResponseDTO response = userService.logout("token");
+
+        assertEquals("user@mykare.com", response.email());
+        verify(tokenRevocationList).revoke(principal);
+        verify(tokenRevocationList, never()).revokeAllFor(any());
+    }
+
+    @Test
+    void logout_ShouldRevokeAllTokensOfUser_WhenTokenHasNoId() {
+
+        JwtPrincipal principal = new JwtPrincipal("user@mykare.com", "USER", null, Instant.now(),
+                Instant.now().plusSeconds(3600));
+        when(jwtService.parseToken("legacy")).thenReturn(principal);
+
+        userService.logout("legacy");
+
+        verify(tokenRevocationList).revokeAllFor("user@mykare.com");
+        verify(tokenRevocationList, never()).revoke(any());
+    }
+
+    @Test
+    void refreshToken_ShouldMintAccessTokenWithoutAuthenticating() {
+
+        when(refreshTokenService.rotate("old")).thenReturn(new RefreshTokenService.Rotation("user@mykare.com", "new"));
+        when(userRepository.existsByNormalizedEmail("user@mykare.com")).thenReturn(true);
+        when(jwtService.generateToken("user@mykare.com", Role.USER.toString())).thenReturn("access");
+        when(jwtService.getExpirationTime()).thenReturn(3600000L);
+
+        ValidationResponseDTO response = userService.refreshToken(new RefreshTokenRequestDTO("old"));
+
+        assertEquals("access", response.token());
+        assertEquals("new", response.refreshToken());
+        verifyNoInteractions(passwordEncoder, passwordHashingExecutor);
+    }
+
+    @Test
+    void refreshToken_ShouldThrowInvalidTokenException_WhenUserNoLongerExists() {
+
+        when(refreshTokenService.rotate("old")).thenReturn(new RefreshTokenService.Rotation("gone@mykare.com", "new"));
+        when(userRepository.existsByNormalizedEmail("gone@mykare.com")).thenReturn(false);
 
+        assertThrows(InvalidTokenException.class, () -> userService.refreshToken(new RefreshTokenRequestDTO("old")));
+        verify(refreshTokenService).revokeAllFor("gone@mykare.com");
+        verify(jwtService, never()).generateToken(anyString(), anyString());
+    }
+
+    private static UserDetails userDetails(String email, String password) {
+        return new org.springframework.security.core.userdetails.User(email, password,
+                Collections.singleton(new SimpleGrantedAuthority(Role.USER.name())));
+    }
 }
@@ -0,0 +1,68 @@
+package com.mykare.user_registration.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+class WindowedCountMinSketchTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private final WindowedCountMinSketch sketch =
+            new WindowedCountMinSketch(4, 1024, Duration.ofSeconds(60), now::get);
+
+    @Test
+    void estimate_ShouldNeverUndercount_WhenManyKeysCollide() {
+
+        IntStream.range(0, 5000).forEach(i -> sketch.add("key-" + i));
+        IntStream.range(0, 7).forEach(i -> sketch.add("target"));
+
+        assertTrue(sketch.estimate("target") >= 7);
+        assertEquals(0, new WindowedCountMinSketch(4, 1024, Duration.ofSeconds(60), now::get).estimate("target"));
+    }
+
+    @Test
+    void estimate_ShouldDecayPreviousWindowAndForgetOlderOnes() {
+
+        now.set(60_000);
+        IntStream.range(0, 10).forEach(i -> sketch.add("ip"));
+        assertEquals(10, sketch.estimate("ip"));
+
+        now.set(120_000 + 30_000);
+        assertEquals(5, sketch.estimate("ip"));
+        sketch.add("ip");
+        assertEquals(6, sketch.estimate("ip"));
+
+        now.set(240_000);
+        assertEquals(0, sketch.estimate("ip"));
+    }
+
+    @Test
+    void millisUntilBelow_ShouldWaitUntilTheWeightedEstimateDropsBelowTheLimit() {
+
+        now.set(60_000 + 45_000);
+        IntStream.range(0, 10).forEach(i -> sketch.add("ip"));
+        assertEquals(0, sketch.millisUntilBelow("ip", 11));
+
+        // 15s to roll over, then 10 * (1 - t/60s) must weigh at most 4
+        long wait = sketch.millisUntilBelow("ip", 5);
+        assertEquals(15_000 + 36_000, wait);
+
+        now.addAndGet(wait - 1);
+        assertEquals(5, sketch.estimate("ip"));
+        now.incrementAndGet();
+        assertEquals(4, sketch.estimate("ip"));
+        assertEquals(0, sketch.millisUntilBelow("ip", 5));
+    }
+
+    @Test
+    void constructor_ShouldRoundWidthUpToPowerOfTwo() {
+
+        assertEquals(2L * 4 * 2048 * Integer.BYTES,
+                new WindowedCountMinSketch(4, 1500, Duration.ofSeconds(1)).sizeInBytes());
+    }
+}